@@ -0,0 +1,55 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Generates users-api shaped JSON payloads ('data' array of user records, as in getUsersExpectedResponse.json)
+ * of a requested size, so that benchmarks can scale from 1KB to 100MB pages.
+ */
+public class BenchmarkPayloads {
+
+    private BenchmarkPayloads() {
+    }
+
+    /**
+     * @param size e.g. "1KB", "100KB", "10MB"
+     */
+    public static long parseSize(String size) {
+        String normalised = size.trim().toUpperCase(Locale.ROOT);
+        if (normalised.endsWith("MB")) {
+            return Long.parseLong(normalised.substring(0, normalised.length() - 2)) * 1024 * 1024;
+        }
+        if (normalised.endsWith("KB")) {
+            return Long.parseLong(normalised.substring(0, normalised.length() - 2)) * 1024;
+        }
+        return Long.parseLong(normalised);
+    }
+
+    public static String usersPage(String size) {
+        return usersPage(parseSize(size), false);
+    }
+
+    /**
+     * @param shuffled list the users in a random (but repeatable) order - for unordered comparison benchmarks
+     */
+    public static String usersPage(long targetBytes, boolean shuffled) {
+        List<String> users = new ArrayList<>();
+        long length = 0;
+        for (int id = 1; length < targetBytes || users.isEmpty(); id++) {
+            String user = String.format("{\"id\":%d,\"email\":\"user.%d@reqres.in\",\"first_name\":\"First%d\","
+                    + "\"last_name\":\"Last%d\",\"avatar\":\"https://reqres.in/img/faces/%d-image.jpg\"}", id, id, id, id, id);
+            users.add(user);
+            length += user.length() + 1;
+        }
+        if (shuffled) {
+            Collections.shuffle(users, new Random(42));
+        }
+        return "{\"page\":1,\"per_page\":" + users.size() + ",\"total\":" + users.size() + ",\"total_pages\":1,\"data\":["
+                + String.join(",", users)
+                + "],\"support\":{\"url\":\"https://reqres.in/#support-heading\",\"text\":\"To keep ReqRes free, contributions towards server costs are appreciated!\"}}";
+    }
+}
@@ -0,0 +1,59 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import reqres.ITestValidation;
+import reqres.model.GetUsersDataProvider;
+import util.HeaderExpectations;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Header validation against a typical users-api response - through the Map based mixin API (cached compilation),
+ * a pre-compiled HeaderExpectations, and compiling on every call (the cost before compiled expectations existed).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Dlog.level=ERROR", "-Dlog.async=false"})
+public class HeaderValidationBenchmark implements ITestValidation {
+
+    private Map<String, Object> actualHeaders;
+    private Map<String, Object> expectedHeaders;
+    private HeaderExpectations compiledHeaders;
+
+    @Setup
+    public void setup() {
+        // Same shape as ServiceResponse headers - case-insensitive, as received from the live service.
+        actualHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        actualHeaders.putAll(Map.of(
+                "Date", "Sat, 22 Apr 2023 03:47:43 GMT",
+                "Content-Type", "application/json; charset=utf-8",
+                "Transfer-Encoding", "chunked",
+                "Connection", "keep-alive",
+                "X-Powered-By", "Express",
+                "Access-Control-Allow-Origin", "*",
+                "Age", "1858",
+                "Server", "cloudflare",
+                "Vary", List.of("Accept-Encoding", "Origin")));
+        expectedHeaders = GetUsersDataProvider.getPositiveResponseExpectedHeaders();
+        compiledHeaders = HeaderExpectations.compile(expectedHeaders);
+    }
+
+    @Benchmark
+    public void checkExpectedHeadersMap() {
+        checkExpectedHeaders(actualHeaders, GetUsersDataProvider.getPositiveResponseExpectedHeaders());
+    }
+
+    @Benchmark
+    public void checkExpectedHeadersCompiled() {
+        checkExpectedHeaders(actualHeaders, compiledHeaders);
+    }
+
+    @Benchmark
+    public List<String> compileOnEveryCall() {
+        return HeaderExpectations.compile(expectedHeaders).validate(actualHeaders);
+    }
+}
@@ -0,0 +1,87 @@
+package benchmarks;
+
+import com.google.gson.JsonObject;
+import net.javacrumbs.jsonunit.core.Configuration;
+import net.javacrumbs.jsonunit.core.Option;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import util.BodyTemplate;
+import util.JsonConvertor;
+import util.KeyedJsonComparator;
+
+import java.util.concurrent.TimeUnit;
+
+import static net.javacrumbs.jsonunit.assertj.JsonAssertions.assertThatJson;
+
+/**
+ * Body comparison of an expected page against the actual page - JsonUnit in strict order, JsonUnit IGNORING_ARRAY_ORDER
+ * against a shuffled page, the keyed (data[*].id) comparator against the same shuffled page, and the expected page
+ * compiled once as a {@link BodyTemplate} (also keyed by data[*].id) against it.
+ * Note: IGNORING_ARRAY_ORDER is a pairwise search - minutes per iteration from 1MB - so it has its own, smaller sizes
+ * ({@link UnorderedPages}); the linear comparisons run from 1KB to 100MB ({@link Pages}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dlog.level=ERROR", "-Dlog.async=false"})
+public class JsonComparisonBenchmark {
+
+    /**
+     * Only the pages the running benchmark compares are built - two 100MB trees (and a template) fit the forked heap, four would not.
+     */
+    @State(Scope.Benchmark)
+    public static class Pages {
+        @Param({"1KB", "100KB", "1MB", "10MB", "100MB"})
+        public String payloadSize;
+
+        private JsonObject expected;
+        private JsonObject actual;
+        private KeyedJsonComparator keyedComparator;
+        private BodyTemplate bodyTemplate;
+
+        @Setup
+        public void setup(BenchmarkParams params) {
+            long bytes = BenchmarkPayloads.parseSize(payloadSize);
+            String benchmark = params.getBenchmark();
+            expected = JsonConvertor.getJsonFromString(BenchmarkPayloads.usersPage(bytes, false));
+            actual = JsonConvertor.getJsonFromString(BenchmarkPayloads.usersPage(bytes, !benchmark.endsWith(".jsonUnitStrictOrder")));
+            keyedComparator = KeyedJsonComparator.byKeys("data[*].id");
+            bodyTemplate = benchmark.endsWith(".bodyTemplate") ? BodyTemplate.compile(expected, "data[*].id") : null;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class UnorderedPages {
+        @Param({"1KB", "10KB", "100KB"})
+        public String payloadSize;
+
+        private JsonObject expected;
+        private JsonObject actualShuffled;
+
+        @Setup
+        public void setup() {
+            long bytes = BenchmarkPayloads.parseSize(payloadSize);
+            expected = JsonConvertor.getJsonFromString(BenchmarkPayloads.usersPage(bytes, false));
+            actualShuffled = JsonConvertor.getJsonFromString(BenchmarkPayloads.usersPage(bytes, true));
+        }
+    }
+
+    @Benchmark
+    public void jsonUnitStrictOrder(Pages pages) {
+        assertThatJson(pages.actual).isEqualTo(pages.expected);
+    }
+
+    @Benchmark
+    public void jsonUnitIgnoringArrayOrder(UnorderedPages pages) {
+        assertThatJson(pages.actualShuffled).when(Option.IGNORING_ARRAY_ORDER).isEqualTo(pages.expected);
+    }
+
+    @Benchmark
+    public int keyedComparator(Pages pages) {
+        return pages.keyedComparator.compare(pages.expected, pages.actual, Configuration.dummyDifferenceListener());
+    }
+
+    @Benchmark
+    public int bodyTemplate(Pages pages) {
+        return pages.bodyTemplate.check(pages.actual, Configuration.dummyDifferenceListener());
+    }
+}
@@ -0,0 +1,57 @@
+package benchmarks;
+
+import com.google.gson.JsonObject;
+import org.openjdk.jmh.annotations.*;
+import util.FixtureStore;
+import util.JsonConvertor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a response body or fixture file into a Gson tree - from a String, re-reading a file,
+ * and through the parse-once FixtureStore (which hands out a deep copy of its cached tree).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dlog.level=ERROR", "-Dlog.async=false", "-Dartifacts.enabled=false"})
+public class JsonConvertorBenchmark {
+
+    @Param({"1KB", "100KB", "10MB", "100MB"})
+    public String payloadSize;
+
+    private String payload;
+    private Path payloadFile;
+
+    @Setup
+    public void setup() throws IOException {
+        payload = BenchmarkPayloads.usersPage(payloadSize);
+        payloadFile = Files.createTempFile("jmh-users-" + payloadSize, ".json");
+        Files.writeString(payloadFile, payload, StandardCharsets.UTF_8);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FixtureStore.clear();
+        Files.deleteIfExists(payloadFile);
+    }
+
+    @Benchmark
+    public JsonObject getJsonFromString() {
+        return JsonConvertor.getJsonFromString(payload);
+    }
+
+    @Benchmark
+    public JsonObject getJsonFromFile() throws IOException {
+        return JsonConvertor.getJsonFromFile(payloadFile);
+    }
+
+    @Benchmark
+    public JsonObject fixtureStoreGetJson() throws IOException {
+        return FixtureStore.getJson(payloadFile);
+    }
+}
@@ -0,0 +1,94 @@
+package benchmarks;
+
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.message.BasicHttpResponse;
+import org.openjdk.jmh.annotations.*;
+import util.IServiceResponse;
+import util.JsonStreamValidator;
+import util.ServiceCaller;
+import util.ServiceResponse;
+import util.StubServer;
+import util.StubServer.StubResponse;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ServiceResponse construction in memory (header conversion + body capture) and complete calls to a local stub,
+ * buffered versus streamed through a JsonStreamValidator.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dlog.level=ERROR", "-Dlog.async=false", "-Dartifacts.enabled=false"})
+public class ServiceResponseBenchmark {
+
+    @Param({"1KB", "100KB", "10MB", "100MB"})
+    public String payloadSize;
+
+    private StubServer stubServer;
+    private String uri;
+    private BasicHttpResponse inMemoryResponse;
+
+    @Setup
+    public void setup() throws IOException {
+        byte[] body = BenchmarkPayloads.usersPage(payloadSize).getBytes(StandardCharsets.UTF_8);
+        stubServer = StubServer.start().stub("/api/users", new StubResponse(200, Map.of(
+                "Content-Type", "application/json; charset=utf-8",
+                "X-Powered-By", "Express",
+                "Access-Control-Allow-Origin", "*"), body));
+        uri = stubServer.getBaseUri() + "/api/users";
+
+        inMemoryResponse = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        inMemoryResponse.addHeader("Content-Type", "application/json; charset=utf-8");
+        inMemoryResponse.addHeader("Set-Cookie", "a=1");
+        inMemoryResponse.addHeader("Set-Cookie", "b=2");
+        inMemoryResponse.addHeader("Server", "cloudflare");
+        inMemoryResponse.setEntity(new ByteArrayEntity(body, ContentType.APPLICATION_JSON));
+    }
+
+    @TearDown
+    public void tearDown() {
+        stubServer.close();
+    }
+
+    @Benchmark
+    public ServiceResponse constructInMemory() throws IOException {
+        return new ServiceResponse(closeable(inMemoryResponse));
+    }
+
+    @Benchmark
+    public IServiceResponse getRequestBuffered() throws IOException {
+        return ServiceCaller.getRequest(uri);
+    }
+
+    @Benchmark
+    public JsonStreamValidator getRequestStreamed() throws IOException {
+        JsonStreamValidator validator = new JsonStreamValidator()
+                .expectField("data[*].id", value -> value.isJsonPrimitive(), "a value");
+        ServiceCaller.getRequest(uri, validator);
+        return validator;
+    }
+
+    // ServiceResponse takes the closeable client response - adapt a plain in-memory response with a no-op close.
+    private static CloseableHttpResponse closeable(BasicHttpResponse response) {
+        return (CloseableHttpResponse) Proxy.newProxyInstance(ServiceResponseBenchmark.class.getClassLoader(),
+                new Class<?>[]{CloseableHttpResponse.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("close")) {
+                        return null;
+                    }
+                    try {
+                        return method.invoke(response, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
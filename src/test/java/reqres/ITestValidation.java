@@ -1,71 +1,140 @@
 package reqres;
 
+import com.google.gson.JsonElement;
+import net.javacrumbs.jsonunit.core.Option;
+import net.javacrumbs.jsonunit.core.listener.DifferenceListener;
 import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.TestReporter;
+import util.BodyTemplate;
+import util.FrameworkEvents;
+import util.HeaderExpectations;
+import util.IServiceResponse;
+import util.KeyedJsonComparator;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.regex.PatternSyntaxException;
 
+import static net.javacrumbs.jsonunit.assertj.JsonAssertions.assertThatJson;
 import static org.junit.jupiter.api.Assertions.assertFalse;
-import static util.LogWrapper.logError;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /** Design Note: Common test helper class (applying mixin pattern) for reuse between test suites
    (anticipating there will be more than one set of tests).
  */
 public interface ITestValidation {
 
-    String DYNAMIC_HEADER_INDICATOR = "matchesPattern:";
+    String DYNAMIC_HEADER_INDICATOR = HeaderExpectations.DYNAMIC_HEADER_INDICATOR;
 
+    /**
+     * Note: the expected map is compiled once and kept in a bounded cache (see {@link HeaderExpectations#cached(Map)}),
+     * so repeated calls with the same data provider map do not re-compile the dynamic header patterns.
+     */
     default void checkExpectedHeaders(Map<String, Object> actualHeaders, Map<String, Object> expectedHeaders) {
+        checkExpectedHeaders(actualHeaders, HeaderExpectations.cached(expectedHeaders));
+    }
+
+    default void checkExpectedHeaders(Map<String, Object> actualHeaders, HeaderExpectations expectedHeaders) {
+        FrameworkEvents.HeaderValidation event = new FrameworkEvents.HeaderValidation();
+        event.begin();
         // Store all the failures for logging.
-        List<String> incorrectEntries = new ArrayList<>();
+        List<String> incorrectEntries = expectedHeaders.validate(actualHeaders);
+        event.end();
+        if (event.shouldCommit()) {
+            event.headerCount = actualHeaders.size();
+            event.failureCount = incorrectEntries.size();
+            event.commit();
+        }
 
-        Set<Map.Entry<String, Object>> entries = expectedHeaders.entrySet();
-        entries.forEach(expectedEntry -> {
+        assertFalse(incorrectEntries.size() > 0,
+                "FAILURE: Expected Headers did not match Actual - missing or mismatched values as follows:\n" +
+                        StringUtils.join(incorrectEntries, "\n"));
+    }
 
-            // First check header name exists in actual.
-            String expectedHeaderName = expectedEntry.getKey();
-            Object actualValue = actualHeaders.get(expectedHeaderName);
-            if (actualValue == null) {
-                incorrectEntries.add("Missing header - expected: " + expectedHeaderName + " not found in actual headers received.");
-                return;
+    /**
+     * Body check with JsonUnit, arrays in any order - fine for small bodies, but its IGNORING_ARRAY_ORDER search is pairwise,
+     * so prefer {@link #checkJsonMatchesByKey} when array elements carry a key. Differences are passed to the listener for logging.
+     */
+    default void checkJsonMatchesIgnoringOrder(JsonElement actualJson, JsonElement expectedJson, DifferenceListener diffListener) {
+        int[] differenceCount = {0};
+        FrameworkEvents.BodyComparison event = new FrameworkEvents.BodyComparison();
+        event.begin();
+        try {
+            assertThatJson(actualJson)
+                    .when(Option.IGNORING_ARRAY_ORDER)
+                    .withDifferenceListener((difference, context) -> {
+                        differenceCount[0]++;
+                        diffListener.diff(difference, context);
+                    })
+                    .isEqualTo(expectedJson);
+        } finally {
+            // Note: JsonUnit fails by throwing, so the event is ended and committed either way.
+            event.end();
+            if (event.shouldCommit()) {
+                event.comparator = "JsonUnit";
+                event.differenceCount = differenceCount[0];
+                event.commit();
             }
-            Object expectedValue = expectedEntry.getValue();
+        }
+    }
 
-            if (expectedValue.toString().startsWith(DYNAMIC_HEADER_INDICATOR)) {
-                // DO pattern match
-                String pattern = expectedValue.toString().replace(DYNAMIC_HEADER_INDICATOR, "");
-                if (!dynamicValueMatches(pattern, expectedHeaderName, actualValue)) {
-                    incorrectEntries.add(String.format("Dynamic Header value for '%s' does not match pattern -: %s \tactual value: %s",
-                            expectedHeaderName, pattern, actualValue));
-                }
-            } else {
-                // DO Exact Match
-                if (!expectedValue.equals(actualValue)) {
-                    incorrectEntries.add(String.format("Header value for '%s' does not exact match - expected value: %s \tactual value: %s",
-                            expectedHeaderName, expectedValue, actualValue));
-                }
-            }
+    /**
+     * Body check for large unordered arrays - elements are matched by key (e.g. 'data[*].id') in linear time
+     * rather than by JsonUnit's pairwise IGNORING_ARRAY_ORDER search. Each difference is listed in the assertion message
+     * and passed to the listener for logging.
+     */
+    default void checkJsonMatchesByKey(JsonElement actualJson, JsonElement expectedJson, KeyedJsonComparator comparator,
+                                       DifferenceListener diffListener) {
+        List<String> differences = new ArrayList<>();
+        FrameworkEvents.BodyComparison event = new FrameworkEvents.BodyComparison();
+        event.begin();
+        comparator.compare(expectedJson, actualJson, (difference, context) -> {
+            differences.add(difference.toString());
+            diffListener.diff(difference, context);
         });
+        event.end();
+        if (event.shouldCommit()) {
+            event.comparator = KeyedJsonComparator.class.getSimpleName();
+            event.differenceCount = differences.size();
+            event.commit();
+        }
+        assertTrue(differences.isEmpty(),
+                "FAILURE: Differences between the expected and actual JSON response body found as follows:\n" +
+                        StringUtils.join(differences, "\n"));
+    }
 
-        assertFalse(incorrectEntries.size() > 0,
-                "FAILURE: Expected Headers did not match Actual - missing or mismatched values as follows:\n" +
-                        StringUtils.join(incorrectEntries, "\n"));
+    /**
+     * Body check against a compiled {@link BodyTemplate} - the values map fills its '${var:name}' placeholders.
+     * Each difference is listed in the assertion message and passed to the listener for logging.
+     */
+    default void checkJsonMatchesTemplate(JsonElement actualJson, BodyTemplate template, Map<String, ?> values,
+                                          DifferenceListener diffListener) {
+        List<String> differences = new ArrayList<>();
+        FrameworkEvents.BodyComparison event = new FrameworkEvents.BodyComparison();
+        event.begin();
+        template.check(actualJson, values, (difference, context) -> {
+            differences.add(difference.toString());
+            diffListener.diff(difference, context);
+        });
+        event.end();
+        if (event.shouldCommit()) {
+            event.comparator = BodyTemplate.class.getSimpleName();
+            event.differenceCount = differences.size();
+            event.commit();
+        }
+        assertTrue(differences.isEmpty(),
+                "FAILURE: Differences between the expected template and actual JSON response body found as follows:\n" +
+                        StringUtils.join(differences, "\n"));
     }
 
-    private boolean dynamicValueMatches(String pattern, String expectedHeaderName, Object actualValue) {
-        try {
-            Matcher matcher = Pattern.compile(pattern).matcher(actualValue.toString());
-            return matcher.matches();
-        } catch (PatternSyntaxException pse) {
-            logError(String.format(
-                    "Error in test data - could not extract a match pattern from dynamic header %s with pattern %s using indicator string: %s",
-                    expectedHeaderName, pattern, DYNAMIC_HEADER_INDICATOR));
-            throw pse;
+    /**
+     * Publishes the request's timing breakdown (connect, TLS, ttfb, total, bytes), and any retries or hedges, as JUnit report entries,
+     * so it appears in the surefire reports next to the test result.
+     */
+    default void reportTimings(TestReporter testReporter, IServiceResponse response) {
+        testReporter.publishEntry(response.getTimings().asReportEntries());
+        if (response.getAttempts().size() > 1) {
+            testReporter.publishEntry("attempts", response.getAttempts().toString());
         }
     }
 }
@@ -0,0 +1,94 @@
+package reqres;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import util.LatencyBaselineStore;
+import util.LatencyBaselineStore.RunStats;
+import util.TestLogContextExtension;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * Checks the latency history file (see util.LatencyBaselineStore) survives a run that died mid-write - a record cut short
+ * at the end of the file, and one cut short with more records appended after it (as an older version appended blindly).
+ * Note: each case cuts the record twice over - inside its statistics, and inside its header (before the key length).
+ */
+@ExtendWith(TestLogContextExtension.class)
+public class LatencyBaselineStoreSuite {
+
+    private static final RunStats FIRST = stats("first", 1);
+    private static final RunStats CUT = stats("cut short", 2);
+    private static final RunStats AFTER = stats("after", 3);
+    private static final RunStats NEXT = stats("next", 4);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Baseline Store - Truncated Last Record Is Skipped And Written Over")
+    public void partialLastRecordTest() throws IOException {
+        for (int keptBytes : new int[]{recordBytes(CUT) - 10, 3}) {
+            LatencyBaselineStore store = new LatencyBaselineStore(tempDir.resolve("partial-" + keptBytes + ".bin"));
+            store.append(List.of(FIRST, CUT));
+            truncate(store.getFile(), recordBytes(FIRST) + keptBytes);
+
+            assertEquals(List.of(FIRST), store.readAll(), "Records read with " + keptBytes + " bytes of the last one left");
+
+            store.append(List.of(AFTER));
+            assertAll("Cut after " + keptBytes + " bytes",
+                    () -> assertEquals(List.of(FIRST, AFTER), store.readAll(), "Records read after the next append"),
+                    () -> assertEquals(recordBytes(FIRST) + recordBytes(AFTER), Files.size(store.getFile()),
+                            "File size - the append writes over the cut record")
+            );
+        }
+    }
+
+    @Test
+    @DisplayName("Baseline Store - Broken Record Mid-File Is Skipped")
+    public void brokenRecordMidFileTest() throws IOException {
+        for (int keptBytes : new int[]{recordBytes(CUT) - 10, 3}) {
+            LatencyBaselineStore store = new LatencyBaselineStore(tempDir.resolve("broken-" + keptBytes + ".bin"));
+            store.append(List.of(FIRST, CUT));
+            truncate(store.getFile(), recordBytes(FIRST) + keptBytes);
+            // Appended straight after the cut record, without the store's repair.
+            Files.write(store.getFile(), encoded(AFTER), StandardOpenOption.APPEND);
+
+            assertEquals(List.of(FIRST, AFTER), store.readAll(), "Records read with " + keptBytes + " bytes of a record mid-file");
+
+            store.append(List.of(NEXT));
+            assertEquals(List.of(FIRST, AFTER, NEXT), store.readAll(), "Records read after the next append, cut after " + keptBytes + " bytes");
+        }
+    }
+
+    private static RunStats stats(String key, long run) {
+        return new RunStats(key, 1_700_000_000_000L + run, 10 * run, 1000 * run, 2000 * run, 3000 * run, 4000 * run, 500 * run);
+    }
+
+    // Magic, key length, key and 7 longs - see the record layout of LatencyBaselineStore.
+    private static int recordBytes(RunStats stats) {
+        return 4 + 2 + stats.key().length() + 8 * 7;
+    }
+
+    // One record exactly as the store writes it.
+    private byte[] encoded(RunStats stats) throws IOException {
+        LatencyBaselineStore single = new LatencyBaselineStore(Files.createTempFile(tempDir, "record", ".bin"));
+        single.append(List.of(stats));
+        return Files.readAllBytes(single.getFile());
+    }
+
+    private static void truncate(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+}
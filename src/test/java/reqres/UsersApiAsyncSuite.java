@@ -0,0 +1,105 @@
+package reqres;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import util.IServiceResponse;
+import util.JdkServiceResponse;
+import util.JfrRecordingExtension;
+import util.StubServer;
+import util.TestLogContextExtension;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static reqres.model.GetUsersDataProvider.getUsersStubResponse;
+import static util.ServiceCaller.getRequestAsync;
+
+
+/**
+ * Checks the non-blocking calls (see util.ServiceCaller.getRequestAsync) against a local stub server - several requests
+ * in flight at once, composed on their futures rather than joined one by one.
+ * Design Note: the stub (JDK HttpServer) speaks HTTP/1.1 only, so the client's HTTP/2 upgrade is declined and each
+ * response must report HTTP_1_1 - a multiplexed HTTP/2 connection is only seen against a server offering it.
+ */
+@ExtendWith({TestLogContextExtension.class, JfrRecordingExtension.class})
+public class UsersApiAsyncSuite implements ITestValidation {
+
+    private static final List<String> PAGES = List.of("1", "2", "3");
+
+    private StubServer stubServer;
+
+    @AfterEach
+    public void afterEachTest() {
+        if (stubServer != null) {
+            stubServer.close();
+        }
+    }
+
+    // One stub path per page, each tagged with its own header so a response can be matched back to its request.
+    private String startStub() throws IOException {
+        stubServer = StubServer.start();
+        for (String page : PAGES) {
+            stubServer.stub("/api/users/page/" + page, getUsersStubResponse(Map.of("X-Stub-Page", page)));
+        }
+        return stubServer.getBaseUri() + "/api/users/page/";
+    }
+
+    @Test
+    @DisplayName("Async - Concurrent GETs Composed Into One Result")
+    public void composedGetsTest() throws IOException {
+        String baseUri = startStub();
+        String expectedBody = new String(getUsersStubResponse().getBody(), StandardCharsets.UTF_8);
+
+        List<CompletableFuture<IServiceResponse>> calls = PAGES.stream()
+                .map(page -> getRequestAsync(baseUri + page))
+                .collect(Collectors.toList());
+        // Note: nothing blocks until every call has been sent - join only waits on the composed result.
+        List<IServiceResponse> responses = CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new))
+                .thenApply(done -> calls.stream().map(CompletableFuture::join).collect(Collectors.toList()))
+                .join();
+
+        for (int i = 0; i < PAGES.size(); i++) {
+            IServiceResponse serviceResponse = responses.get(i);
+            String page = PAGES.get(i);
+            assertAll("Page " + page,
+                    () -> assertEquals(200, serviceResponse.getStatusCode(), "HTTP/S Response code"),
+                    () -> assertEquals(HttpClient.Version.HTTP_1_1, ((JdkServiceResponse) serviceResponse).getProtocolVersion(),
+                            "Protocol version"),
+                    () -> checkExpectedHeaders(serviceResponse.getHeaders(), Map.of(
+                            "Content-Type", "application/json; charset=utf-8",
+                            "X-Stub-Page", page)),
+                    () -> assertEquals(expectedBody, serviceResponse.getBody(), "Response body")
+            );
+        }
+        PAGES.forEach(page -> assertEquals(1, stubServer.getRequestCount("/api/users/page/" + page), "Requests for page " + page));
+    }
+
+    @Test
+    @DisplayName("Async - Dependent GET Chained On The First Response")
+    public void chainedGetsTest() throws IOException {
+        String baseUri = startStub();
+
+        // The second call is only sent once the first has answered, using a value read from its headers.
+        IServiceResponse second = getRequestAsync(baseUri + "1")
+                .thenCompose(first -> {
+                    int nextPage = Integer.parseInt(first.getHeaderValues("X-Stub-Page").get(0)) + 1;
+                    return getRequestAsync(baseUri + nextPage);
+                })
+                .join();
+
+        assertAll(
+                () -> assertEquals(200, second.getStatusCode(), "HTTP/S Response code"),
+                () -> assertInstanceOf(JdkServiceResponse.class, second, "Async calls run on the java.net.http client"),
+                () -> assertEquals(List.of("2"), second.getHeaderValues("X-Stub-Page"), "Page requested by the chained call"),
+                () -> assertEquals(0, stubServer.getRequestCount("/api/users/page/3"), "Requests for a page never asked for")
+        );
+    }
+}
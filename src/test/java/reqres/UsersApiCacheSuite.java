@@ -0,0 +1,194 @@
+package reqres;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import util.CallAttempt;
+import util.IServiceResponse;
+import util.JfrRecordingExtension;
+import util.LogWrapper;
+import util.ResponseCache;
+import util.StubServer;
+import util.TestLogContextExtension;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static reqres.model.GetUsersDataProvider.getUsersPath;
+import static reqres.model.GetUsersDataProvider.getUsersStubResponse;
+import static util.ServiceCaller.getRequest;
+
+
+/**
+ * Checks the GET response cache used with -Dhttp.cache.enabled=true (see util.ResponseCache) against a local stub server
+ * counting the requests that reach it - single flight, freshness (ttl, max-age and Age), revalidation with If-None-Match,
+ * no-store, and eviction.
+ * Design Note: each test passes its own ResponseCache (see ServiceCaller.getRequest(String, ResponseCache)) rather than
+ * enabling the shared one, which would also cache the calls of suites running alongside.
+ */
+@ExtendWith({TestLogContextExtension.class, JfrRecordingExtension.class})
+public class UsersApiCacheSuite implements ITestValidation {
+
+    private static final long MAX_BYTES = 1024 * 1024;
+
+    private StubServer stubServer;
+
+    @AfterEach
+    public void afterEachTest() {
+        if (stubServer != null) {
+            stubServer.close();
+        }
+    }
+
+    private String startStub(Map<String, String> cacheHeaders) throws IOException {
+        stubServer = StubServer.start().stub(getUsersPath(), getUsersStubResponse(cacheHeaders));
+        return stubServer.getBaseUri() + getUsersPath();
+    }
+
+    @Test
+    @DisplayName("Cache - Concurrent Identical GETs Share One Call")
+    public void singleFlightTest() throws Exception {
+        String uri = startStub(Map.of("ETag", "\"v1\""));
+        // Note: the stub holds each response long enough for every caller to be waiting on the first one.
+        stubServer.withFaults(new StubServer.Faults(300, 0, 0, 503));
+        ResponseCache cache = new ResponseCache(Duration.ofSeconds(60), 16, MAX_BYTES);
+
+        int callers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            CountDownLatch startGate = new CountDownLatch(1);
+            List<CompletableFuture<IServiceResponse>> calls = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                calls.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        startGate.await();
+                        return getRequest(uri, cache);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException(e);
+                    }
+                }, LogWrapper.withTestContext(executor)));
+            }
+            startGate.countDown();
+
+            String expectedBody = new String(getUsersStubResponse().getBody(), StandardCharsets.UTF_8);
+            for (CompletableFuture<IServiceResponse> call : calls) {
+                IServiceResponse serviceResponse = call.join();
+                assertEquals(200, serviceResponse.getStatusCode(), "HTTP/S Response code");
+                assertEquals(expectedBody, serviceResponse.getBody(), "Response body");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, stubServer.getRequestCount(getUsersPath()), "Requests reaching the server for " + callers + " identical GETs");
+    }
+
+    @Test
+    @DisplayName("Cache - Expired Entry Is Revalidated And Served On 304")
+    public void revalidationTest() throws Exception {
+        String uri = startStub(Map.of("ETag", "\"v1\""));
+        ResponseCache cache = new ResponseCache(Duration.ofMillis(100), 16, MAX_BYTES);
+
+        IServiceResponse first = getRequest(uri, cache);
+        assertEquals(200, first.getStatusCode(), "HTTP/S Response code");
+        Thread.sleep(200);
+
+        // Same ETag, so the stub answers the revalidation with a 304 - carrying a new header, but none of this new body.
+        stubServer.stub(getUsersPath(), StubServer.StubResponse.of(200, Map.of("ETag", "\"v1\"", "X-Stub-Version", "2"), "{}"));
+        IServiceResponse revalidated = getRequest(uri, cache);
+
+        assertAll(
+                () -> assertEquals(2, stubServer.getRequestCount(getUsersPath()), "Requests reaching the server"),
+                () -> assertEquals(1, stubServer.getNotModifiedCount(getUsersPath()), "Revalidations sent with a matching If-None-Match"),
+                () -> assertEquals(200, revalidated.getStatusCode(), "Status served after a 304"),
+                () -> assertEquals(first.getBody(), revalidated.getBody(), "The stored body is served after a 304"),
+                () -> assertEquals(List.of("2"), revalidated.getHeaderValues("X-Stub-Version"), "Headers of the 304 update the stored ones"),
+                () -> assertEquals(List.of(304), revalidated.getAttempts().stream().map(CallAttempt::statusCode).toList(),
+                        "Attempts of the revalidation served with the stored body")
+        );
+    }
+
+    @Test
+    @DisplayName("Cache - Freshness Follows Max-Age Less Age")
+    public void maxAgeTest() throws Exception {
+        ResponseCache cache = new ResponseCache(Duration.ofSeconds(60), 16, MAX_BYTES);
+
+        String uri = startStub(Map.of("ETag", "\"v1\"", "Cache-Control", "max-age=60"));
+        getRequest(uri, cache);
+        getRequest(uri, cache);
+        assertEquals(1, stubServer.getRequestCount(getUsersPath()), "Requests for a response fresh for 60 s");
+        stubServer.close();
+
+        // Note: already 60 s old when received - stale straight away, so every use is revalidated.
+        ResponseCache agedCache = new ResponseCache(Duration.ofSeconds(60), 16, MAX_BYTES);
+        String agedUri = startStub(Map.of("ETag", "\"v1\"", "Cache-Control", "max-age=60", "Age", "60"));
+        getRequest(agedUri, agedCache);
+        getRequest(agedUri, agedCache);
+        assertAll(
+                () -> assertEquals(2, stubServer.getRequestCount(getUsersPath()), "Requests for a response with no freshness left"),
+                () -> assertEquals(1, stubServer.getNotModifiedCount(getUsersPath()), "Revalidations answered with a 304")
+        );
+    }
+
+    @Test
+    @DisplayName("Cache - No-Store Responses Are Never Stored")
+    public void noStoreTest() throws Exception {
+        String uri = startStub(Map.of("ETag", "\"v1\"", "Cache-Control", "no-store"));
+        ResponseCache cache = new ResponseCache(Duration.ofSeconds(60), 16, MAX_BYTES);
+
+        getRequest(uri, cache);
+        IServiceResponse second = getRequest(uri, cache);
+
+        assertAll(
+                () -> assertEquals(200, second.getStatusCode(), "HTTP/S Response code"),
+                () -> assertEquals(0, cache.size(), "Entries stored"),
+                () -> assertEquals(2, stubServer.getRequestCount(getUsersPath()), "Requests reaching the server"),
+                // Nothing was stored, so there was nothing to revalidate - the second GET is unconditional.
+                () -> assertEquals(0, stubServer.getNotModifiedCount(getUsersPath()), "Conditional requests")
+        );
+    }
+
+    @Test
+    @DisplayName("Cache - Least Recently Used Entries Are Evicted")
+    public void evictionTest() throws Exception {
+        stubServer = StubServer.start();
+        for (String path : List.of("/a", "/b", "/c")) {
+            stubServer.stub(path, getUsersStubResponse());
+        }
+        String base = stubServer.getBaseUri();
+        ResponseCache cache = new ResponseCache(Duration.ofSeconds(60), 2, MAX_BYTES);
+
+        getRequest(base + "/a", cache);
+        getRequest(base + "/b", cache);
+        getRequest(base + "/a", cache);   // a hit - 'a' is now more recently used than 'b'
+        getRequest(base + "/c", cache);   // over 2 entries - evicts 'b'
+        getRequest(base + "/a", cache);
+        getRequest(base + "/b", cache);
+
+        assertAll(
+                () -> assertEquals(2, cache.size(), "Entries stored"),
+                () -> assertEquals(1, stubServer.getRequestCount("/a"), "Requests for the recently used entry"),
+                () -> assertEquals(2, stubServer.getRequestCount("/b"), "Requests for the evicted entry")
+        );
+
+        // Room for one body only - each new entry evicts the one before it.
+        long bodyBytes = getUsersStubResponse().getBody().length;
+        ResponseCache smallCache = new ResponseCache(Duration.ofSeconds(60), 16, bodyBytes * 3);
+        getRequest(base + "/a", smallCache);
+        getRequest(base + "/c", smallCache);
+        assertEquals(1, smallCache.size(), "Entries stored within the byte limit");
+    }
+}
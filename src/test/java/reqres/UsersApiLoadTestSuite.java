@@ -0,0 +1,114 @@
+package reqres;
+
+import net.javacrumbs.jsonunit.core.listener.Difference;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.Isolated;
+import util.BodyTemplate;
+import util.FrameworkConfig;
+import util.HeaderExpectations;
+import util.IServiceResponse;
+import util.JfrRecordingExtension;
+import util.LoadGenerator;
+import util.LoadReport;
+import util.Preflight;
+import util.RecordingDifferenceListener;
+import util.StubServer;
+import util.TestLogContextExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static reqres.model.GetUsersDataProvider.*;
+import static util.JsonConvertor.getJsonFromString;
+import static util.LogWrapper.logError;
+import static util.ServiceCaller.getRequest;
+
+
+/**
+ * Re-uses the list users call and its validations as a load test against a local stub server, so it can run offline.
+ * Not part of the default 'mvn test' run - execute with: mvn test -Dtest=UsersApiLoadTestSuite
+ * Tune with -Dload.workers, -Dload.requests or -Dload.durationSeconds (duration wins when set),
+ * and -Dload.maxP99Millis for the latency budget.
+ * Note: isolated from parallel execution - other suites running alongside would distort the latency figures.
+ */
+@Isolated
+@ExtendWith({TestLogContextExtension.class, JfrRecordingExtension.class})
+public class UsersApiLoadTestSuite implements ITestValidation {
+
+    private static StubServer stubServer;
+
+    @BeforeAll
+    public static void testSuiteSetup() throws Exception {
+        stubServer = StubServer.start().stub(getUsersPath(), getUsersStubResponse());
+        // Note: the body checks are JIT compiled on the stub body before the measured run, so compilation is not timed.
+        String stubBody = new String(getUsersStubResponse().getBody(), StandardCharsets.UTF_8);
+        BodyTemplate bodyTemplate = getUsersBodyTemplate();
+        RecordingDifferenceListener warmUpDifferences = new RecordingDifferenceListener();
+        Preflight.builder()
+                .probe(stubServer.getBaseUri() + getUsersPath())
+                .warmUp(() -> {
+                    // Also confirms the stub body matches the template - otherwise every measured request would fail.
+                    if (bodyTemplate.check(getJsonFromString(stubBody), Map.of("page", 1), warmUpDifferences) > 0) {
+                        throw new IllegalStateException("Stub body does not match the users template: " + warmUpDifferences.getDifferenceList());
+                    }
+                }, 2000)
+                .build()
+                .run();
+    }
+
+    @AfterAll
+    public static void testSuiteTeardown() {
+        stubServer.close();
+    }
+
+    @Test
+    @DisplayName("List Users Api Load Test - Concurrent Positive Case")
+    public void listUsersLoadTest() throws Exception {
+        // Expected data is loaded once, outside the measured loop.
+        String uri = stubServer.getBaseUri() + getUsersPath();
+        HeaderExpectations expectedHeaders = HeaderExpectations.compile(getStubResponseExpectedHeaders());
+        /* Note: the body template is compiled once (regexes, paths) - users are matched by id (linear) rather than
+           IGNORING_ARRAY_ORDER, whose pairwise search degrades on large pages.
+         */
+        BodyTemplate bodyTemplate = getUsersBodyTemplate();
+        Map<String, Object> templateValues = Map.of("page", 1);
+        // Shared by every worker (it is thread-safe) - only failing requests add to it.
+        RecordingDifferenceListener diffListener = new RecordingDifferenceListener();
+
+        LoadGenerator.Builder builder = LoadGenerator.builder(() -> {
+                    IServiceResponse serviceResponse = getRequest(uri);
+                    assertEquals(200, serviceResponse.getStatusCode(), "HTTP/S Response code");
+                    checkExpectedHeaders(serviceResponse.getHeaders(), expectedHeaders);
+                    checkJsonMatchesTemplate(getJsonFromString(serviceResponse.getBody()), bodyTemplate, templateValues, diffListener);
+                })
+                .workers(FrameworkConfig.getInt("load.workers", 16))
+                .requestCount(FrameworkConfig.getLong("load.requests", 2000));
+        long durationSeconds = FrameworkConfig.getLong("load.durationSeconds", 0);
+        if (durationSeconds > 0) {
+            builder.duration(Duration.ofSeconds(durationSeconds));
+        }
+
+        LoadReport report = builder.build().run();
+        List<Difference> differenceList = diffListener.getDifferenceList();
+        if (!differenceList.isEmpty()) {
+            // Note: the same difference usually repeats on every failing request - each distinct one is logged once.
+            Set<String> distinct = new LinkedHashSet<>();
+            differenceList.forEach(difference -> distinct.add(difference.toString()));
+            logError("FAILURE: " + differenceList.size() + " body differences during load run, distinct ones as follows:\n"
+                    + String.join("\n", distinct));
+        }
+
+        assertAll(
+                () -> assertTrue(report.getTotalRequests() > 0, "Load run issued no requests"),
+                () -> assertEquals(0, report.getErrorCount(), "Failed requests during load run: " + report.getErrorsByType()),
+                () -> assertTrue(report.getPercentileMillis(99) <= FrameworkConfig.getDouble("load.maxP99Millis", 1000),
+                        "p99 latency over budget: " + report)
+        );
+    }
+}
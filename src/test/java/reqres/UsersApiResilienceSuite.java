@@ -0,0 +1,213 @@
+package reqres;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import util.CallAttempt;
+import util.CallPolicy;
+import util.IServiceResponse;
+import util.JfrRecordingExtension;
+import util.RetryBudget;
+import util.StubServer;
+import util.TestLogContextExtension;
+
+import java.io.IOException;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static reqres.model.GetUsersDataProvider.getUsersPath;
+import static reqres.model.GetUsersDataProvider.getUsersStubResponse;
+import static util.LogWrapper.logInfo;
+import static util.ServiceCaller.getRequest;
+import static util.ServiceCaller.request;
+
+
+/**
+ * Checks the tail-latency controls of every service call - deadlines, budgeted retries and hedged requests
+ * (see util.ResilientCall) - against a local stub server injecting delays and errors, so it runs offline.
+ * Design Note: each test starts its own stub with its own faults and passes its own CallPolicy and RetryBudget,
+ * leaving the configured ones (used by the other suites) untouched.
+ */
+@ExtendWith({TestLogContextExtension.class, JfrRecordingExtension.class})
+public class UsersApiResilienceSuite implements ITestValidation {
+
+    private StubServer stubServer;
+
+    @AfterEach
+    public void afterEachTest() {
+        if (stubServer != null) {
+            stubServer.close();
+        }
+    }
+
+    private String startStub(StubServer.Faults faults) throws IOException {
+        stubServer = StubServer.start().stub(getUsersPath(), getUsersStubResponse()).withFaults(faults);
+        return stubServer.getBaseUri() + getUsersPath();
+    }
+
+    @Test
+    @DisplayName("Resilience - Deadline Abandons A Stuck Call")
+    public void deadlineTest() throws IOException {
+        String uri = startStub(new StubServer.Faults(3000, 0, 0, 503));
+        CallPolicy policy = CallPolicy.builder().deadline(Duration.ofMillis(300)).maxAttempts(1).noHedge().build();
+
+        long start = System.nanoTime();
+        assertThrows(HttpTimeoutException.class, () -> getRequest(uri, policy));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Note: the stub holds the response for 3 s - returning well before shows the request was abandoned, not waited on.
+        assertTrue(elapsedMillis < 1500, "Call took " + elapsedMillis + " ms against a 300 ms deadline");
+    }
+
+    @Test
+    @DisplayName("Resilience - Retries Recover From Intermittent Errors")
+    public void retryTest() throws IOException {
+        String uri = startStub(new StubServer.Faults(0, 0, 0.3, 503));
+        CallPolicy policy = CallPolicy.builder()
+                .maxAttempts(10)
+                .backoff(Duration.ofMillis(1), Duration.ofMillis(20))
+                .retryBudget(new RetryBudget(100, 1000))
+                .noHedge()
+                .build();
+
+        int retried = 0;
+        for (int i = 0; i < 40; i++) {
+            IServiceResponse serviceResponse = getRequest(uri, policy);
+            assertEquals(200, serviceResponse.getStatusCode(), "HTTP/S Response code after " + serviceResponse.getAttempts());
+
+            List<CallAttempt> attempts = serviceResponse.getAttempts();
+            CallAttempt last = attempts.get(attempts.size() - 1);
+            assertEquals(CallAttempt.Outcome.USED, last.outcome(), "Last attempt is the one used: " + attempts);
+            for (CallAttempt earlier : attempts.subList(0, attempts.size() - 1)) {
+                assertEquals(503, earlier.statusCode(), "Only the injected errors are retried: " + attempts);
+                assertEquals(CallAttempt.Outcome.DISCARDED, earlier.outcome(), "Retried answers are discarded: " + attempts);
+            }
+            if (attempts.size() > 1) {
+                retried++;
+                assertEquals(CallAttempt.Kind.RETRY, last.kind(), "Attempts after the first are retries: " + attempts);
+            }
+        }
+        logInfo("Calls recovered by retrying: " + retried + " - " + policy.getRetryBudget());
+        assertTrue(retried > 0, "No call was retried against a 30% error rate");
+    }
+
+    @Test
+    @DisplayName("Resilience - Retry Budget Caps Retries Against A Failing Service")
+    public void retryBudgetTest() throws IOException {
+        String uri = startStub(new StubServer.Faults(0, 0, 1.0, 503));
+        RetryBudget retryBudget = new RetryBudget(0, 3);
+        CallPolicy policy = CallPolicy.builder()
+                .maxAttempts(5)
+                .backoff(Duration.ofMillis(1), Duration.ofMillis(5))
+                .retryBudget(retryBudget)
+                .noHedge()
+                .build();
+
+        int attempts = 0;
+        for (int i = 0; i < 4; i++) {
+            IServiceResponse serviceResponse = getRequest(uri, policy);
+            // Note: once retries are refused the last answer stands - the test still sees the real status.
+            assertEquals(503, serviceResponse.getStatusCode(), "HTTP/S Response code");
+            attempts += serviceResponse.getAttempts().size();
+        }
+
+        assertAll(
+                () -> assertEquals(3, retryBudget.getSpent(), "Retries made - " + retryBudget),
+                () -> assertTrue(retryBudget.getRefused() > 0, "Retries refused - " + retryBudget)
+        );
+        assertEquals(4 + 3, attempts, "Attempts across all calls");
+    }
+
+    @Test
+    @DisplayName("Resilience - Non-Idempotent Methods Are Not Retried")
+    public void nonIdempotentTest() throws IOException {
+        String uri = startStub(new StubServer.Faults(0, 0, 1.0, 503));
+        CallPolicy policy = CallPolicy.builder().maxAttempts(5).retryBudget(new RetryBudget(100, 100)).noHedge().build();
+
+        IServiceResponse serviceResponse = request("POST", uri, policy);
+
+        assertEquals(503, serviceResponse.getStatusCode(), "HTTP/S Response code");
+        assertEquals(1, serviceResponse.getAttempts().size(), "Attempts: " + serviceResponse.getAttempts());
+    }
+
+    @Test
+    @DisplayName("Resilience - Hedged Requests Cut The Latency Tail")
+    public void hedgeTest() throws IOException {
+        long slowMillis = 500;
+        String uri = startStub(new StubServer.Faults(0, 0, 0, 503, 0.03, slowMillis));
+        CallPolicy policy = CallPolicy.builder()
+                .hedge(95, 20)
+                .hedgeMinDelay(Duration.ofMillis(10))
+                .retryBudget(new RetryBudget(100, 1000))
+                .build();
+
+        // Note: no hedges until 20 latencies are known - then a GET without an answer by the p95 gets a second request.
+        List<Long> hedgedCallMillis = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            long start = System.nanoTime();
+            IServiceResponse serviceResponse = getRequest(uri, policy);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            assertEquals(200, serviceResponse.getStatusCode(), "HTTP/S Response code");
+
+            // Note: at a 3% rate the hedge itself can meet a slow response too - such a call was not cut short, so is not counted.
+            boolean hedgeUsed = serviceResponse.getAttempts().stream()
+                    .anyMatch(attempt -> attempt.kind() == CallAttempt.Kind.HEDGE && attempt.outcome() == CallAttempt.Outcome.USED
+                            && attempt.elapsed().toMillis() < slowMillis);
+            if (hedgeUsed) {
+                hedgedCallMillis.add(elapsedMillis);
+                assertEquals(CallAttempt.Outcome.CANCELLED, serviceResponse.getAttempts().get(0).outcome(),
+                        "The slower request is abandoned: " + serviceResponse.getAttempts());
+            }
+        }
+        logInfo("Calls answered by a hedge: " + hedgedCallMillis.size() + ", in ms: " + hedgedCallMillis + " - " + policy.getRetryBudget());
+
+        assertFalse(hedgedCallMillis.isEmpty(), "No hedge answered first against a 3% rate of " + slowMillis + " ms responses");
+        assertTrue(hedgedCallMillis.stream().allMatch(millis -> millis < slowMillis),
+                "Calls answered by a hedge still waited for the slow response: " + hedgedCallMillis);
+    }
+
+    @Test
+    @DisplayName("Resilience - A Retryable Error Leaves The Hedge To Answer")
+    public void hedgeAfterRetryableErrorTest() throws IOException {
+        String uri = startStub(StubServer.Faults.NONE);
+        RetryBudget retryBudget = new RetryBudget(100, 1000);
+        CallPolicy.Builder policy = CallPolicy.builder()
+                // The median, so that the cold first call cannot set the hedge delay - the floor of 20 ms applies.
+                .hedge(50, 10)
+                .hedgeMinDelay(Duration.ofMillis(20))
+                .backoff(Duration.ofMillis(1), Duration.ofMillis(5))
+                .retryBudget(retryBudget);
+        for (int i = 0; i < 10; i++) {
+            getRequest(uri, policy.build());
+        }
+
+        // Once with no retries left, once with retries allowed - either way the hedge in flight answers the call.
+        for (CallPolicy hedged : List.of(policy.maxAttempts(1).build(), policy.maxAttempts(3).build())) {
+            /* The request reaching the server first fails slowly, the other is slower still but succeeds. Usually that is
+               the first request and the hedge sent after 20 ms - under load the hedge can arrive first, the case is the same.
+             */
+            stubServer.script(150, StubServer.StubResponse.of(503, Map.of("Content-Type", "text/plain"), "Injected error"))
+                    .script(400, null);
+            IServiceResponse serviceResponse = getRequest(uri, hedged);
+            List<CallAttempt> attempts = serviceResponse.getAttempts();
+
+            assertEquals(2, attempts.size(), "A first request and a hedge, no retry while the hedge was in flight: " + attempts);
+            CallAttempt failed = attempts.get(0).statusCode() == 503 ? attempts.get(0) : attempts.get(1);
+            CallAttempt answered = failed == attempts.get(0) ? attempts.get(1) : attempts.get(0);
+            assertAll(hedged.toString(),
+                    () -> assertEquals(200, serviceResponse.getStatusCode(), "HTTP/S Response code after " + attempts),
+                    () -> assertEquals(Set.of(CallAttempt.Kind.FIRST, CallAttempt.Kind.HEDGE),
+                            Set.of(attempts.get(0).kind(), attempts.get(1).kind()), "Attempts: " + attempts),
+                    () -> assertEquals(503, failed.statusCode(), "One request got the error: " + attempts),
+                    () -> assertEquals(CallAttempt.Outcome.DISCARDED, failed.outcome(), "The error is set aside: " + attempts),
+                    () -> assertEquals(CallAttempt.Outcome.USED, answered.outcome(), "The request still in flight answers: " + attempts)
+            );
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package reqres;
+
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.extension.ExtendWith;
+import util.HeaderExpectations;
+import util.IServiceResponse;
+import util.JfrRecordingExtension;
+import util.KeyedJsonComparator;
+import util.LatencyBaselineExtension;
+import util.Preflight;
+import util.RecordingDifferenceListener;
+import util.Scenario;
+import util.ScenarioSource;
+import util.TestLogContextExtension;
+
+import java.io.IOException;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static reqres.model.GetUsersDataProvider.getAllUsersUri;
+import static reqres.model.GetUsersDataProvider.getFixtureDirectory;
+import static reqres.model.GetUsersDataProvider.getUsersScenarioFile;
+import static util.FixtureStore.getJson;
+import static util.JsonConvertor.getJsonFromString;
+import static util.LogWrapper.logDebug;
+import static util.LogWrapper.logError;
+import static util.LogWrapper.logInfo;
+import static util.ServiceCaller.request;
+
+
+/**
+ * Data-driven regression pack - each line of the scenario file becomes a dynamic test, generated only as JUnit reaches it,
+ * so memory stays flat however many cases the file holds. Expected body fixtures are loaded per case through the
+ * (bounded) FixtureStore rather than up front.
+ * Select cases with -Dscenario.filter=<name regex> and split the pack across machines with -Dscenario.shard=<index>/<count>.
+ */
+@ExtendWith({TestLogContextExtension.class, JfrRecordingExtension.class, LatencyBaselineExtension.class})
+public class UsersApiScenarioSuite implements ITestValidation {
+
+    @BeforeAll
+    public static void testSuiteSetup() throws Exception {
+        // Note: aborts the pack (cases reported as skipped) if the service is down - see Preflight.
+        Preflight.builder()
+                .probe(getAllUsersUri())
+                .fixtures(getFixtureDirectory())
+                .build()
+                .run();
+    }
+
+    @TestFactory
+    @DisplayName("List Users Api Scenarios")
+    public Stream<DynamicTest> listUsersScenarios() throws IOException {
+        logInfo("Reading scenarios from: " + getUsersScenarioFile());
+        return ScenarioSource.fromConfig(getUsersScenarioFile()).stream()
+                .map(scenario -> DynamicTest.dynamicTest(scenario.toString(), () -> runScenario(scenario)));
+    }
+
+    private void runScenario(Scenario scenario) throws IOException {
+        IServiceResponse serviceResponse = request(scenario.method(), scenario.uri());
+        logInfo("Scenario " + scenario.name() + " responded with: " + serviceResponse.getStatusCode());
+        logDebug(() -> serviceResponse.getHeaders().toString() + "\n" + serviceResponse.getBody());
+
+        assertEquals(scenario.expectedStatus(), serviceResponse.getStatusCode(), "HTTP/S Response code");
+
+        // A listener per case - dynamic tests from one factory share the suite instance.
+        RecordingDifferenceListener diffListener = new RecordingDifferenceListener();
+        try {
+            assertAll(
+                    // Note: compiled per case, not through the shared cache - a large pack can carry a distinct map per row.
+                    () -> checkExpectedHeaders(serviceResponse.getHeaders(), HeaderExpectations.compile(scenario.expectedHeaders())),
+                    () -> {
+                        if (scenario.expectedBody() == null) {
+                            return;
+                        }
+                        JsonObject expectedJson = getJson(scenario.expectedBody());
+                        JsonObject actualJson = getJsonFromString(serviceResponse.getBody());
+                        if (!scenario.arrayKeys().isEmpty()) {
+                            KeyedJsonComparator comparator = KeyedJsonComparator.byKeys(scenario.arrayKeys().toArray(String[]::new));
+                            checkJsonMatchesByKey(actualJson, expectedJson, comparator, diffListener);
+                        } else {
+                            checkJsonMatchesIgnoringOrder(actualJson, expectedJson, diffListener);
+                        }
+                    }
+            );
+        } finally {
+            if (!diffListener.getDifferenceList().isEmpty()) {
+                StringBuilder differences = new StringBuilder("FAILURE: Differences for scenario " + scenario + ":\n");
+                diffListener.getDifferenceList().forEach(difference -> differences.append(difference).append("\n"));
+                logError(differences.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package reqres;
+
+import net.javacrumbs.jsonunit.core.listener.Difference;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.opentest4j.AssertionFailedError;
+import util.BodyTemplate;
+import util.IServiceResponse;
+import util.JfrRecordingExtension;
+import util.RecordingDifferenceListener;
+import util.StubServer;
+import util.TestLogContextExtension;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static reqres.model.GetUsersDataProvider.*;
+import static util.JsonConvertor.getJsonFromString;
+import static util.ServiceCaller.getRequest;
+
+
+/**
+ * Checks every typed matcher of a body template (see util.BodyTemplate) both ways against a local stub server -
+ * a profile whose fields all match, and one where each field but the ignored one breaks its matcher.
+ * Note: the failing case asserts on the differences found rather than failing - each must be listed by its field path.
+ */
+@ExtendWith({TestLogContextExtension.class, JfrRecordingExtension.class})
+public class UsersApiTemplateSuite implements ITestValidation {
+
+    private static final String BAD_PROFILE_PATH = getUserProfilePath() + "/bad";
+    private static final List<String> MATCHED_FIELDS = List.of("id", "createdAt", "birthday", "age", "score", "name", "active", "email", "job");
+
+    private static StubServer stubServer;
+    private static BodyTemplate profileTemplate;
+
+    private RecordingDifferenceListener diffListener;
+
+    @BeforeAll
+    public static void testSuiteSetup() throws IOException {
+        stubServer = StubServer.start()
+                .stub(getUserProfilePath(), getUserProfileStubResponse())
+                .stub(BAD_PROFILE_PATH, getUserProfileBadStubResponse());
+        profileTemplate = getUserProfileBodyTemplate();
+    }
+
+    @AfterAll
+    public static void testSuiteTeardown() {
+        stubServer.close();
+    }
+
+    @BeforeEach
+    public void beforeEachTest() {
+        diffListener = new RecordingDifferenceListener();
+    }
+
+    @Test
+    @DisplayName("Template - Every Typed Matcher Accepts A Matching Value")
+    public void typedMatchersPassTest() throws IOException {
+        IServiceResponse serviceResponse = getRequest(stubServer.getBaseUri() + getUserProfilePath());
+        assertEquals(200, serviceResponse.getStatusCode(), "HTTP/S Response code");
+
+        checkJsonMatchesTemplate(getJsonFromString(serviceResponse.getBody()), profileTemplate, Map.of("job", "leader"), diffListener);
+    }
+
+    @Test
+    @DisplayName("Template - Every Typed Matcher Rejects A Mismatched Value")
+    public void typedMatchersFailTest() throws IOException {
+        IServiceResponse serviceResponse = getRequest(stubServer.getBaseUri() + BAD_PROFILE_PATH);
+        assertEquals(200, serviceResponse.getStatusCode(), "HTTP/S Response code");
+
+        AssertionFailedError failure = assertThrows(AssertionFailedError.class, () -> checkJsonMatchesTemplate(
+                getJsonFromString(serviceResponse.getBody()), profileTemplate, Map.of("job", "leader"), diffListener));
+
+        List<String> differencePaths = diffListener.getDifferenceList().stream().map(Difference::getActualPath).toList();
+        assertAll(
+                () -> assertEquals(MATCHED_FIELDS.size(), differencePaths.size(), "Differences found: " + differencePaths),
+                () -> assertAll(MATCHED_FIELDS.stream().map(field -> () -> {
+                    assertTrue(differencePaths.contains(field), "No difference reported for '" + field + "'");
+                    assertTrue(failure.getMessage().contains("CHANGED: " + field + " "),
+                            "Difference for '" + field + "' not listed in: " + failure.getMessage());
+                }))
+        );
+    }
+}
@@ -1,14 +1,23 @@
 package reqres.model;
 
 import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
 import reqres.ITestValidation;
+import util.BodyTemplate;
+import util.FrameworkConfig;
+import util.JsonStreamValidator;
+import util.StubServer.StubResponse;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.regex.Pattern;
 
-import static util.JsonConvertor.getJsonFromFile;
+import static util.FixtureStore.getJson;
 
 
 /**
@@ -18,14 +27,82 @@ import static util.JsonConvertor.getJsonFromFile;
  */
 public class GetUsersDataProvider implements ITestValidation {
 
+    // Users are unique by id - used to match expected and actual users regardless of order.
+    public static final String USERS_ARRAY_KEY = "data[*].id";
+
+    private static BodyTemplate usersBodyTemplate;
+
+    public static Path getFixtureDirectory() {
+        return Paths.get("src", "test", "java", "reqres", "model");
+    }
+
     public static String getAllUsersUri() {
         // TODO Move such details to an environment setting (dotenv style) and instantiate from the environment instead of hard-code.
         return "https://reqres.in/api/users";
     }
 
+    // Data-driven list users cases, one per line - see util.ScenarioSource for the fields. Override with -Dscenario.file.
+    public static Path getUsersScenarioFile() {
+        return Paths.get(FrameworkConfig.getString("scenario.file", getFixtureDirectory().resolve("usersScenarios.jsonl").toString()));
+    }
+
+    // Latency budgets for a single call - generous by default as the public api is shared; tighten with -Dsla.ttfbMillis / -Dsla.totalMillis.
+    public static Duration getTtfbBudget() {
+        return Duration.ofMillis(FrameworkConfig.getLong("sla.ttfbMillis", 2000));
+    }
+
+    public static Duration getTotalTimeBudget() {
+        return Duration.ofMillis(FrameworkConfig.getLong("sla.totalMillis", 5000));
+    }
+
     public static JsonObject getDefaultPositiveResponseBody() throws IOException {
-        Path expectedJsonFilePath = Paths.get("src", "test", "java", "reqres", "model", "getUsersExpectedResponse.json");
-        return getJsonFromFile(expectedJsonFilePath);
+        Path expectedJsonFilePath = getFixtureDirectory().resolve("getUsersExpectedResponse.json");
+        return getJson(expectedJsonFilePath);
+    }
+
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("[A-Za-z0-9._%+-]+@reqres\\.in");
+    private static final Pattern AVATAR_PATTERN = Pattern.compile("https?:\\/\\/[A-Za-z0-9.\\/\\-]+.jpg$");
+
+    /**
+     * Streaming equivalent of the positive response body checks - each user record is validated as it arrives,
+     * so the same rules hold for pages far too large to buffer.
+     */
+    public static JsonStreamValidator getUsersStreamingValidator() {
+        return new JsonStreamValidator()
+                .expectField("page", new JsonPrimitive(1))
+                .expectField("per_page", new JsonPrimitive(6))
+                .expectField("total", new JsonPrimitive(12))
+                .expectField("total_pages", new JsonPrimitive(2))
+                .expectField("support.url", new JsonPrimitive("https://reqres.in/#support-heading"))
+                .expectField("data[*].id", value -> value.isJsonPrimitive() && value.getAsJsonPrimitive().isNumber(), "a number")
+                .expectField("data[*].email", value -> value.isJsonPrimitive()
+                        && EMAIL_PATTERN.matcher(value.getAsString()).matches(), "an @reqres.in email")
+                .expectField("data[*].avatar", value -> value.isJsonPrimitive()
+                        && AVATAR_PATTERN.matcher(value.getAsString()).matches(), "an image url");
+    }
+
+    /**
+     * Per-user checks applied to every record of every page when crawling all pages - returns null when valid.
+     */
+    public static JsonStreamValidator.ElementRule getUserRecordRule() {
+        return (index, user) -> {
+            if (!user.isJsonObject()) {
+                return "user record is not an object: " + user;
+            }
+            JsonObject record = user.getAsJsonObject();
+            for (String field : new String[]{"id", "email", "first_name", "last_name", "avatar"}) {
+                if (!record.has(field)) {
+                    return "user " + record.get("id") + " missing field '" + field + "'";
+                }
+            }
+            if (!EMAIL_PATTERN.matcher(record.get("email").getAsString()).matches()) {
+                return "user " + record.get("id") + " has unexpected email: " + record.get("email");
+            }
+            if (!AVATAR_PATTERN.matcher(record.get("avatar").getAsString()).matches()) {
+                return "user " + record.get("id") + " has unexpected avatar: " + record.get("avatar");
+            }
+            return null;
+        };
     }
 
     /**
@@ -52,12 +129,81 @@ public class GetUsersDataProvider implements ITestValidation {
     }
 
 
+    // Offline stub data - used by load runs against a local StubServer instead of the public api.
+
+    public static String getUsersPath() {
+        return "/api/users";
+    }
+
+    public static StubResponse getUsersStubResponse() throws IOException {
+        return getUsersStubResponse(Map.of());
+    }
+
+    // The stub page with extra headers - e.g. ETag / Cache-Control for the response cache checks.
+    public static StubResponse getUsersStubResponse(Map<String, String> extraHeaders) throws IOException {
+        Path stubBodyPath = getFixtureDirectory().resolve("getUsersStubResponse.json");
+        Map<String, String> headers = new LinkedHashMap<>(Map.of(
+                "Content-Type", "application/json; charset=utf-8",
+                "X-Powered-By", "Express",
+                "Access-Control-Allow-Origin", "*"));
+        headers.putAll(extraHeaders);
+        return new StubResponse(200, headers, Files.readAllBytes(stubBodyPath));
+    }
+
+    /**
+     * The stub page as a compiled template - typed matchers for the paging fields, '${var:page}' filled in per check,
+     * and users matched by id. Compiled once and shared, as it is checked against every response of a load run.
+     */
+    public static synchronized BodyTemplate getUsersBodyTemplate() throws IOException {
+        if (usersBodyTemplate == null) {
+            usersBodyTemplate = BodyTemplate.compile(getJson(getFixtureDirectory().resolve("getUsersBodyTemplate.json")), USERS_ARRAY_KEY);
+        }
+        return usersBodyTemplate;
+    }
+
+    // A single user profile - one field per template matcher (uuid, dates, range, any-type, regex, var, ignore).
+    public static String getUserProfilePath() {
+        return "/api/users/2/profile";
+    }
+
+    public static StubResponse getUserProfileStubResponse() throws IOException {
+        return profileStubResponse("getUserProfileStubResponse.json");
+    }
+
+    // Every field but the ignored 'token' breaks its matcher - e.g. a short uuid, a date-time with a space, 30 February.
+    public static StubResponse getUserProfileBadStubResponse() throws IOException {
+        return profileStubResponse("getUserProfileBadStubResponse.json");
+    }
+
+    private static StubResponse profileStubResponse(String fixture) throws IOException {
+        return new StubResponse(200, Map.of("Content-Type", "application/json; charset=utf-8"),
+                Files.readAllBytes(getFixtureDirectory().resolve(fixture)));
+    }
+
+    public static BodyTemplate getUserProfileBodyTemplate() throws IOException {
+        return BodyTemplate.compile(getJson(getFixtureDirectory().resolve("getUserProfileBodyTemplate.json")));
+    }
+
+    /**
+     * Note: the JDK stub server sends header names as 'Content-type' etc. - header checks are case-insensitive.
+     */
+    public static Map<String, Object> getStubResponseExpectedHeaders() {
+        return Map.of(
+                "Content-Type", "application/json; charset=utf-8",
+                "Transfer-Encoding", "chunked",
+                "X-Powered-By", "Express",
+                "Access-Control-Allow-Origin", "*",
+                "Date", DYNAMIC_HEADER_INDICATOR + "[A-Za-z]{3}.\\s\\d{1,2}\\s[A-Za-z]{3}\\s\\d{4}\\s\\d{2}:\\d{2}:\\d{2}\\s[A-Z]{3}"
+        );
+    }
+
+
     // Deliberate Failure data so that we can showcase a negative result in logging / reporting.
 
     public static JsonObject getDeliberateFailResponseBody() throws IOException {
         // Includes 2 failures - mismatch field value, and extra field in actual (name for id=3 removed in expected).
-        Path expectedJsonFilePath = Paths.get("src", "test", "java", "reqres", "model", "getUsersBadResponse.json");
-        return getJsonFromFile(expectedJsonFilePath);
+        Path expectedJsonFilePath = getFixtureDirectory().resolve("getUsersBadResponse.json");
+        return getJson(expectedJsonFilePath);
     }
 
     public static Map<String, Object> getDeliberateFailResponseHeaders() {
@@ -0,0 +1,19 @@
+package util;
+
+/**
+ * How service calls reach the api under test - selected with -Dapi.mode=live|record|replay (default live).
+ * LIVE - calls go to the real service.
+ * RECORD - calls go to the real service and every response is saved to disk (see {@link RecordingStore}).
+ * REPLAY - calls are redirected to a local {@link StubServer} that serves the saved responses, so runs are offline and fast.
+ */
+public enum ApiMode {
+    LIVE,
+    RECORD,
+    REPLAY;
+
+    public static final String API_MODE_KEY = "api.mode";
+
+    public static ApiMode current() {
+        return valueOf(FrameworkConfig.getString(API_MODE_KEY, LIVE.name()).toUpperCase());
+    }
+}
@@ -0,0 +1,122 @@
+package util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static util.LogWrapper.logError;
+
+/**
+ * Saves each request / response exchange made by a test as a text file under target/artifacts/<test name>/,
+ * for defect raising and triage, instead of concatenating full headers and bodies into the log.
+ * Files are written on a single background thread - the test only pays for queueing the exchange.
+ * Configure with -Dartifacts.enabled (default true), -Dartifacts.dir (default target/artifacts)
+ * and -Dartifacts.maxPerTest (default 20, so a load run does not write one file per request).
+ */
+public class ArtifactWriter {
+
+    public static final String ENABLED_KEY = "artifacts.enabled";
+    public static final String DIRECTORY_KEY = "artifacts.dir";
+    public static final String MAX_PER_TEST_KEY = "artifacts.maxPerTest";
+
+    private static final boolean enabled = FrameworkConfig.getBoolean(ENABLED_KEY, true);
+    private static final Path directory = Paths.get(FrameworkConfig.getString(DIRECTORY_KEY, "target/artifacts"));
+    private static final int maxPerTest = FrameworkConfig.getInt(MAX_PER_TEST_KEY, 20);
+
+    // Exchanges saved per running test - removed when the test ends (see TestLogContextExtension).
+    private static final Map<String, AtomicInteger> exchangeCounters = new ConcurrentHashMap<>();
+    private static final PendingTasks pendingWrites = new PendingTasks();
+
+    // When the queue is full the test thread writes the file itself, which slows it down rather than losing the artifact.
+    private static final ThreadPoolExecutor writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1024), runnable -> {
+                Thread thread = new Thread(runnable, "artifact-writer");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.CallerRunsPolicy());
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(ArtifactWriter::flush, "artifact-flush"));
+    }
+
+    private ArtifactWriter() {
+    }
+
+    /**
+     * Queues the exchange for writing. Only exchanges made from within a test (see {@link TestLogContextExtension}) are kept.
+     */
+    public static void writeExchange(String method, URI uri, Map<String, String> requestHeaders, IServiceResponse response) {
+        String testName = LogWrapper.getTestContext();
+        if (!enabled || testName == null) {
+            return;
+        }
+        int sequence = exchangeCounters.computeIfAbsent(testName, name -> new AtomicInteger()).incrementAndGet();
+        if (sequence > maxPerTest) {
+            return;
+        }
+        pendingWrites.added();
+        writer.execute(() -> {
+            try {
+                write(testName, sequence, method, uri, requestHeaders, response);
+            } finally {
+                pendingWrites.finished();
+            }
+        });
+    }
+
+    /**
+     * Ends the test's exchange numbering, so a later test of the same name starts again from 1 with its own limit.
+     */
+    static void testFinished(String testName) {
+        exchangeCounters.remove(testName);
+    }
+
+    /**
+     * Waits (up to 10 seconds) for queued artifacts to be written.
+     */
+    public static void flush() {
+        pendingWrites.awaitNone(Duration.ofSeconds(10));
+    }
+
+    private static void write(String testName, int sequence, String method, URI uri,
+                              Map<String, String> requestHeaders, IServiceResponse response) {
+        Path file = directory.resolve(safeFileName(testName)).resolve(String.format("%03d-%s.txt", sequence, method));
+        try {
+            Files.createDirectories(file.getParent());
+            try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                out.write("REQUEST\n" + method + " " + uri + "\n");
+                for (Map.Entry<String, String> header : requestHeaders.entrySet()) {
+                    out.write(header.getKey() + ": " + header.getValue() + "\n");
+                }
+                out.write("\nRESPONSE\n" + response.getStatusCode() + " " + response.getStatusText() + "\n");
+                for (String name : response.getHeaders().keySet()) {
+                    List<String> values = response.getHeaderValues(name);
+                    for (String value : values) {
+                        out.write(name + ": " + value + "\n");
+                    }
+                }
+                out.write("\n");
+                out.write(response.getBody() != null ? response.getBody() : "<body streamed - not captured>");
+                out.write("\n");
+            }
+        } catch (IOException e) {
+            logError("Could not write test artifact " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static String safeFileName(String testName) {
+        return testName.replaceAll("[^A-Za-z0-9._-]+", "_");
+    }
+}
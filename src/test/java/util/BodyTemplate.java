@@ -0,0 +1,491 @@
+package util;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import net.javacrumbs.jsonunit.core.listener.Difference;
+import net.javacrumbs.jsonunit.core.listener.DifferenceListener;
+
+import java.math.BigDecimal;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An expected JSON body compiled once into a tree of matchers, then checked against any number of parsed responses.
+ * Expected string values may be markers:
+ * <ul>
+ *     <li>JsonUnit's '${json-unit.regex}&lt;pattern&gt;', '${json-unit.ignore}', '${json-unit.any-number}',
+ *     '${json-unit.any-string}' and '${json-unit.any-boolean}' - so existing fixtures compile unchanged</li>
+ *     <li>'${range:&lt;min&gt;..&lt;max&gt;}' - a number within the inclusive range, either bound may be left out</li>
+ *     <li>'${isoDate}', '${isoDateTime}' and '${uuid}' - a string of that type</li>
+ *     <li>'${var:&lt;name&gt;}' - equal to the named value supplied when checking, e.g. an id generated by the test</li>
+ * </ul>
+ * Arrays declared with a key path (as for {@link KeyedJsonComparator}, e.g. 'data[*].id') are matched by key, others by position.
+ * Design Note: regexes are compiled and every difference path is built at compile time, and each thread reuses its own Matcher,
+ * so a passing check allocates next to nothing - which is what validating every response of a load or crawl run needs.
+ * A compiled template is immutable and safe to share between threads. Differences are reported through the JsonUnit
+ * {@link DifferenceListener} interface, as for {@link KeyedJsonComparator}.
+ */
+public class BodyTemplate {
+
+    public static final String REGEX_MARKER = "${json-unit.regex}";
+    public static final String IGNORE_MARKER = "${json-unit.ignore}";
+    public static final String ANY_NUMBER_MARKER = "${json-unit.any-number}";
+    public static final String ANY_STRING_MARKER = "${json-unit.any-string}";
+    public static final String ANY_BOOLEAN_MARKER = "${json-unit.any-boolean}";
+    public static final String ISO_DATE_MARKER = "${isoDate}";
+    public static final String ISO_DATE_TIME_MARKER = "${isoDateTime}";
+    public static final String UUID_MARKER = "${uuid}";
+    private static final Pattern RANGE_MARKER = Pattern.compile("\\$\\{range:(-?[0-9.]*)\\.\\.(-?[0-9.]*)}");
+    private static final Pattern VARIABLE_MARKER = Pattern.compile("\\$\\{var:([^}]+)}");
+
+    private final Node root;
+
+    private BodyTemplate(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * @param keyPaths element key declarations for unordered arrays, such as 'data[*].id'
+     */
+    public static BodyTemplate compile(JsonElement expected, String... keyPaths) {
+        Map<String, String[]> arrayKeys = JsonKeyPaths.parse(keyPaths);
+        return new BodyTemplate(compileNode(expected, "", "", arrayKeys));
+    }
+
+    public int check(JsonElement actual, DifferenceListener listener) {
+        return check(actual, Map.of(), listener);
+    }
+
+    /**
+     * Reports every difference to the listener and returns how many were found (0 means the body matches).
+     *
+     * @param variables values for the '${var:name}' placeholders - JsonElements, Strings, Numbers or Booleans
+     */
+    public int check(JsonElement actual, Map<String, ?> variables, DifferenceListener listener) {
+        return root.check(actual == null ? JsonNull.INSTANCE : actual, variables, listener);
+    }
+
+    // A compiled expectation - 'path' is the location reported in differences.
+    private abstract static class Node {
+        final String path;
+        final JsonElement expected;
+
+        Node(String path, JsonElement expected) {
+            this.path = path;
+            this.expected = expected;
+        }
+
+        abstract int check(JsonElement actual, Map<String, ?> variables, DifferenceListener listener);
+
+        int different(JsonElement actual, DifferenceListener listener) {
+            JsonDifference.report(Difference.Type.DIFFERENT, path, path, expected, actual, listener);
+            return 1;
+        }
+    }
+
+    private static Node compileNode(JsonElement expected, String rulePath, String path, Map<String, String[]> arrayKeys) {
+        if (expected.isJsonObject()) {
+            Map<String, Node> fields = new LinkedHashMap<>();
+            expected.getAsJsonObject().entrySet().forEach(field -> fields.put(field.getKey(),
+                    compileNode(field.getValue(), JsonKeyPaths.child(rulePath, field.getKey()), JsonKeyPaths.child(path, field.getKey()), arrayKeys)));
+            return new ObjectNode(path, expected, fields);
+        }
+        if (expected.isJsonArray()) {
+            JsonArray array = expected.getAsJsonArray();
+            String elementRulePath = rulePath + "[*]";
+            String[] keyField = arrayKeys.get(rulePath);
+            if (keyField != null) {
+                return compileKeyedArray(array, keyField, elementRulePath, path, arrayKeys);
+            }
+            List<Node> elements = new ArrayList<>(array.size());
+            for (int i = 0; i < array.size(); i++) {
+                elements.add(compileNode(array.get(i), elementRulePath, path + "[" + i + "]", arrayKeys));
+            }
+            return new OrderedArrayNode(path, expected, elements);
+        }
+        if (expected.isJsonPrimitive() && expected.getAsJsonPrimitive().isString()) {
+            Node marker = compileMarker(expected.getAsString(), path, expected);
+            if (marker != null) {
+                return marker;
+            }
+        }
+        return new LiteralNode(path, expected);
+    }
+
+    private static Node compileKeyedArray(JsonArray array, String[] keyField, String elementRulePath, String path,
+                                          Map<String, String[]> arrayKeys) {
+        String keyName = String.join(".", keyField);
+        Map<JsonElement, Integer> indexByKey = new HashMap<>(array.size() * 4 / 3 + 1);
+        List<Node> elements = new ArrayList<>(array.size());
+        for (JsonElement element : array) {
+            JsonElement key = JsonKeyPaths.extractKey(element, keyField);
+            if (key == null || indexByKey.containsKey(key)) {
+                throw new IllegalArgumentException("Expected array '" + path + "' needs a unique literal '" + keyName
+                        + "' in every element to be matched by key, found: " + element);
+            }
+            indexByKey.put(key, elements.size());
+            elements.add(compileNode(element, elementRulePath, JsonKeyPaths.keyed(path, keyName, key), arrayKeys));
+        }
+        return new KeyedArrayNode(path, array, keyField, keyName, Map.copyOf(indexByKey), elements);
+    }
+
+    // Null when the text is not a marker, i.e. a literal string.
+    private static Node compileMarker(String text, String path, JsonElement expected) {
+        if (!text.startsWith("${")) {
+            return null;
+        }
+        if (text.startsWith(REGEX_MARKER)) {
+            return new RegexNode(path, expected, Pattern.compile(text.substring(REGEX_MARKER.length())));
+        }
+        switch (text) {
+            case IGNORE_MARKER:
+                return new AnyNode(path, expected);
+            case ANY_NUMBER_MARKER:
+                return new TypeNode(path, expected, ValueType.NUMBER);
+            case ANY_STRING_MARKER:
+                return new TypeNode(path, expected, ValueType.STRING);
+            case ANY_BOOLEAN_MARKER:
+                return new TypeNode(path, expected, ValueType.BOOLEAN);
+            case ISO_DATE_MARKER:
+                return new TypeNode(path, expected, ValueType.ISO_DATE);
+            case ISO_DATE_TIME_MARKER:
+                return new TypeNode(path, expected, ValueType.ISO_DATE_TIME);
+            case UUID_MARKER:
+                return new TypeNode(path, expected, ValueType.UUID);
+            default:
+                break;
+        }
+        Matcher range = RANGE_MARKER.matcher(text);
+        if (range.matches()) {
+            return new RangeNode(path, expected, bound(range.group(1), text), bound(range.group(2), text));
+        }
+        Matcher variable = VARIABLE_MARKER.matcher(text);
+        if (variable.matches()) {
+            return new VariableNode(path, expected, variable.group(1));
+        }
+        return null;
+    }
+
+    private static BigDecimal bound(String value, String marker) {
+        try {
+            return value.isEmpty() ? null : new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid range bound '" + value + "' in template marker " + marker, e);
+        }
+    }
+
+    private static final class LiteralNode extends Node {
+        LiteralNode(String path, JsonElement expected) {
+            super(path, expected);
+        }
+
+        @Override
+        int check(JsonElement actual, Map<String, ?> variables, DifferenceListener listener) {
+            return expected.equals(actual) ? 0 : different(actual, listener);
+        }
+    }
+
+    private static final class AnyNode extends Node {
+        AnyNode(String path, JsonElement expected) {
+            super(path, expected);
+        }
+
+        @Override
+        int check(JsonElement actual, Map<String, ?> variables, DifferenceListener listener) {
+            return 0;
+        }
+    }
+
+    private static final class RegexNode extends Node {
+        private final ThreadLocal<Matcher> matcher;
+
+        RegexNode(String path, JsonElement expected, Pattern pattern) {
+            super(path, expected);
+            this.matcher = ThreadLocal.withInitial(() -> pattern.matcher(""));
+        }
+
+        @Override
+        int check(JsonElement actual, Map<String, ?> variables, DifferenceListener listener) {
+            boolean matches = actual.isJsonPrimitive() && matcher.get().reset(actual.getAsString()).matches();
+            return matches ? 0 : different(actual, listener);
+        }
+    }
+
+    private enum ValueType {
+        NUMBER, STRING, BOOLEAN, ISO_DATE, ISO_DATE_TIME, UUID
+    }
+
+    private static final class TypeNode extends Node {
+        private final ValueType type;
+
+        TypeNode(String path, JsonElement expected, ValueType type) {
+            super(path, expected);
+            this.type = type;
+        }
+
+        @Override
+        int check(JsonElement actual, Map<String, ?> variables, DifferenceListener listener) {
+            return matches(actual) ? 0 : different(actual, listener);
+        }
+
+        private boolean matches(JsonElement actual) {
+            if (!actual.isJsonPrimitive()) {
+                return false;
+            }
+            JsonPrimitive primitive = actual.getAsJsonPrimitive();
+            return switch (type) {
+                case NUMBER -> primitive.isNumber();
+                case STRING -> primitive.isString();
+                case BOOLEAN -> primitive.isBoolean();
+                case ISO_DATE -> primitive.isString() && parses(DateTimeFormatter.ISO_LOCAL_DATE, primitive.getAsString());
+                case ISO_DATE_TIME -> primitive.isString() && parses(DateTimeFormatter.ISO_DATE_TIME, primitive.getAsString());
+                case UUID -> primitive.isString() && isUuid(primitive.getAsString());
+            };
+        }
+
+        private static boolean parses(DateTimeFormatter format, String text) {
+            try {
+                format.parse(text);
+                return true;
+            } catch (DateTimeParseException e) {
+                return false;
+            }
+        }
+
+        // 8-4-4-4-12 hex digits, checked in place rather than with a regex or UUID.fromString (which accepts short groups).
+        private static boolean isUuid(String text) {
+            if (text.length() != 36) {
+                return false;
+            }
+            for (int i = 0; i < 36; i++) {
+                char c = text.charAt(i);
+                boolean dash = i == 8 || i == 13 || i == 18 || i == 23;
+                if (dash ? c != '-' : Character.digit(c, 16) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class RangeNode extends Node {
+        private final BigDecimal min;
+        private final BigDecimal max;
+        private final boolean longBounds;
+        private final long minLong;
+        private final long maxLong;
+
+        RangeNode(String path, JsonElement expected, BigDecimal min, BigDecimal max) {
+            super(path, expected);
+            this.min = min;
+            this.max = max;
+            this.longBounds = isLong(min) && isLong(max);
+            this.minLong = min == null ? Long.MIN_VALUE : min.longValue();
+            this.maxLong = max == null ? Long.MAX_VALUE : max.longValue();
+        }
+
+        private static boolean isWholeNumber(String text) {
+            int start = text.startsWith("-") ? 1 : 0;
+            if (text.length() <= start || text.length() - start > 18) {
+                return false;
+            }
+            for (int i = start; i < text.length(); i++) {
+                if (text.charAt(i) < '0' || text.charAt(i) > '9') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean isLong(BigDecimal bound) {
+            return bound == null || (bound.stripTrailingZeros().scale() <= 0 && bound.toBigInteger().bitLength() < 63);
+        }
+
+        @Override
+        int check(JsonElement actual, Map<String, ?> variables, DifferenceListener listener) {
+            if (!actual.isJsonPrimitive() || !actual.getAsJsonPrimitive().isNumber()) {
+                return different(actual, listener);
+            }
+            // Gson keeps parsed numbers as their text - whole numbers are compared as longs, anything else exactly as BigDecimal.
+            String text = actual.getAsNumber().toString();
+            boolean inRange;
+            if (longBounds && isWholeNumber(text)) {
+                long value = Long.parseLong(text);
+                inRange = value >= minLong && value <= maxLong;
+            } else {
+                BigDecimal value = actual.getAsBigDecimal();
+                inRange = (min == null || value.compareTo(min) >= 0) && (max == null || value.compareTo(max) <= 0);
+            }
+            return inRange ? 0 : different(actual, listener);
+        }
+    }
+
+    private static final class VariableNode extends Node {
+        private final String name;
+
+        VariableNode(String path, JsonElement expected, String name) {
+            super(path, expected);
+            this.name = name;
+        }
+
+        @Override
+        int check(JsonElement actual, Map<String, ?> variables, DifferenceListener listener) {
+            Object value = variables.get(name);
+            if (value == null) {
+                JsonDifference.report(Difference.Type.DIFFERENT, path, path, "a value for unbound placeholder '" + name + "'",
+                        actual, listener);
+                return 1;
+            }
+            return equalsValue(value, actual) ? 0 : different(actual, listener);
+        }
+
+        private static boolean equalsValue(Object value, JsonElement actual) {
+            if (value instanceof JsonElement element) {
+                return element.equals(actual);
+            }
+            if (!actual.isJsonPrimitive()) {
+                return false;
+            }
+            JsonPrimitive primitive = actual.getAsJsonPrimitive();
+            if (value instanceof Number number) {
+                return primitive.isNumber() && primitive.getAsBigDecimal().compareTo(new BigDecimal(number.toString())) == 0;
+            }
+            if (value instanceof Boolean bool) {
+                return primitive.isBoolean() && primitive.getAsBoolean() == bool;
+            }
+            return primitive.isString() && primitive.getAsString().equals(value.toString());
+        }
+    }
+
+    private static final class ObjectNode extends Node {
+        private final String[] names;
+        private final Node[] fields;
+
+        ObjectNode(String path, JsonElement expected, Map<String, Node> fields) {
+            super(path, expected);
+            this.names = fields.keySet().toArray(String[]::new);
+            this.fields = fields.values().toArray(Node[]::new);
+        }
+
+        @Override
+        int check(JsonElement actual, Map<String, ?> variables, DifferenceListener listener) {
+            if (!actual.isJsonObject()) {
+                return different(actual, listener);
+            }
+            JsonObject object = actual.getAsJsonObject();
+            int differences = 0;
+            int present = 0;
+            for (int i = 0; i < names.length; i++) {
+                JsonElement value = object.get(names[i]);
+                if (value == null) {
+                    JsonDifference.report(Difference.Type.MISSING, fields[i].path, fields[i].path, fields[i].expected, null, listener);
+                    differences++;
+                } else {
+                    present++;
+                    differences += fields[i].check(value, variables, listener);
+                }
+            }
+            // Only look for unexpected fields when the counts say there are some.
+            if (object.size() > present) {
+                JsonObject expectedObject = expected.getAsJsonObject();
+                for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+                    if (!expectedObject.has(entry.getKey())) {
+                        String extraPath = JsonKeyPaths.child(path, entry.getKey());
+                        JsonDifference.report(Difference.Type.EXTRA, extraPath, extraPath, null, entry.getValue(), listener);
+                        differences++;
+                    }
+                }
+            }
+            return differences;
+        }
+    }
+
+    private static final class OrderedArrayNode extends Node {
+        private final Node[] elements;
+
+        OrderedArrayNode(String path, JsonElement expected, List<Node> elements) {
+            super(path, expected);
+            this.elements = elements.toArray(Node[]::new);
+        }
+
+        @Override
+        int check(JsonElement actual, Map<String, ?> variables, DifferenceListener listener) {
+            if (!actual.isJsonArray()) {
+                return different(actual, listener);
+            }
+            JsonArray array = actual.getAsJsonArray();
+            int differences = 0;
+            int common = Math.min(elements.length, array.size());
+            for (int i = 0; i < common; i++) {
+                differences += elements[i].check(array.get(i), variables, listener);
+            }
+            for (int i = common; i < elements.length; i++) {
+                JsonDifference.report(Difference.Type.MISSING, elements[i].path, elements[i].path, elements[i].expected, null, listener);
+                differences++;
+            }
+            for (int i = common; i < array.size(); i++) {
+                String extraPath = path + "[" + i + "]";
+                JsonDifference.report(Difference.Type.EXTRA, extraPath, extraPath, null, array.get(i), listener);
+                differences++;
+            }
+            return differences;
+        }
+    }
+
+    private static final class KeyedArrayNode extends Node {
+        private final String[] keyField;
+        private final String keyName;
+        private final Map<JsonElement, Integer> indexByKey;
+        private final Node[] elements;
+
+        KeyedArrayNode(String path, JsonElement expected, String[] keyField, String keyName,
+                       Map<JsonElement, Integer> indexByKey, List<Node> elements) {
+            super(path, expected);
+            this.keyField = keyField;
+            this.keyName = keyName;
+            this.indexByKey = indexByKey;
+            this.elements = elements.toArray(Node[]::new);
+        }
+
+        @Override
+        int check(JsonElement actual, Map<String, ?> variables, DifferenceListener listener) {
+            if (!actual.isJsonArray()) {
+                return different(actual, listener);
+            }
+            JsonArray array = actual.getAsJsonArray();
+            // The one allocation of a passing check - which expected elements were found.
+            boolean[] seen = new boolean[elements.length];
+            int differences = 0;
+            for (int i = 0; i < array.size(); i++) {
+                JsonElement element = array.get(i);
+                JsonElement key = JsonKeyPaths.extractKey(element, keyField);
+                Integer index = key == null ? null : indexByKey.get(key);
+                if (index == null || seen[index]) {
+                    String extraPath = key == null ? path + "[" + i + "]" : JsonKeyPaths.keyed(path, keyName, key);
+                    JsonDifference.report(Difference.Type.EXTRA, extraPath, extraPath, null, element, listener);
+                    differences++;
+                } else {
+                    seen[index] = true;
+                    differences += elements[index].check(element, variables, listener);
+                }
+            }
+            for (int i = 0; i < elements.length; i++) {
+                if (!seen[i]) {
+                    JsonDifference.report(Difference.Type.MISSING, elements[i].path, elements[i].path, elements[i].expected, null, listener);
+                    differences++;
+                }
+            }
+            return differences;
+        }
+    }
+}
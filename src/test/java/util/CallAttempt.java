@@ -0,0 +1,35 @@
+package util;
+
+import java.time.Duration;
+
+/**
+ * One try made by {@link ServiceCaller} for a call - the first, a retry, or a hedge (see {@link ResilientCall}) -
+ * with when it started (relative to the call), how long it ran, and what came of it.
+ *
+ * @param statusCode the response status, or 0 when the attempt failed or was cancelled before a response arrived
+ * @param failure    why the attempt failed, or null
+ */
+public record CallAttempt(int number, Kind kind, Duration startedAfter, Duration elapsed, int statusCode, String failure,
+                          Outcome outcome) {
+
+    public enum Kind {
+        FIRST, RETRY, HEDGE
+    }
+
+    public enum Outcome {
+        /** Its response is the one returned to the test. */
+        USED,
+        /** Its response arrived but was not used - a retryable status, retried or superseded by the other request of a hedged pair. */
+        DISCARDED,
+        /** Failed - I/O error or timeout. */
+        FAILED,
+        /** Abandoned while in flight - the other request of a hedged pair answered first, or the call deadline passed. */
+        CANCELLED
+    }
+
+    @Override
+    public String toString() {
+        return String.format("#%d %s at +%d ms, %d ms: %s (%s)", number, kind, startedAfter.toMillis(), elapsed.toMillis(),
+                failure != null ? failure : String.valueOf(statusCode), outcome);
+    }
+}
@@ -0,0 +1,222 @@
+package util;
+
+import org.apache.http.client.config.RequestConfig;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Timeouts, retries and hedging applied to each {@link ServiceCaller} call - see {@link ResilientCall} for how they combine.
+ * The default policy ({@link #current()}) is built once from the http.timeout.*, http.retry.* and http.hedge.* system
+ * properties and shares one global {@link RetryBudget}. Tests needing other settings build their own with {@link #builder()},
+ * which starts from the same configured values.
+ * Note: timeouts are always on; retries (-Dhttp.retry.maxAttempts) and hedging (-Dhttp.hedge.enabled) are opt-in,
+ * as either can hide an intermittent fault a functional test is meant to report.
+ */
+public class CallPolicy {
+
+    public static final String CONNECT_TIMEOUT_MS_KEY = "http.timeout.connectMillis";
+    public static final String SOCKET_TIMEOUT_MS_KEY = "http.timeout.socketMillis";
+    public static final String DEADLINE_MS_KEY = "http.timeout.requestMillis";
+    public static final String MAX_ATTEMPTS_KEY = "http.retry.maxAttempts";
+    public static final String BACKOFF_BASE_MS_KEY = "http.retry.backoffBaseMillis";
+    public static final String BACKOFF_MAX_MS_KEY = "http.retry.backoffMaxMillis";
+    public static final String BUDGET_PERCENT_KEY = "http.retry.budgetPercent";
+    public static final String BUDGET_MIN_RETRIES_KEY = "http.retry.budgetMinRetries";
+    public static final String HEDGE_ENABLED_KEY = "http.hedge.enabled";
+    public static final String HEDGE_PERCENTILE_KEY = "http.hedge.percentile";
+    public static final String HEDGE_MIN_SAMPLES_KEY = "http.hedge.minSamples";
+    public static final String HEDGE_MIN_DELAY_MS_KEY = "http.hedge.minDelayMillis";
+
+    // Safe to send twice - only these are retried or hedged (hedges are further limited to reads).
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE", "PUT", "DELETE");
+    private static final Set<String> HEDGED_METHODS = Set.of("GET", "HEAD");
+
+    private static CallPolicy current;
+
+    private final Duration connectTimeout;
+    private final Duration socketTimeout;
+    private final Duration deadline;
+    private final int maxAttempts;
+    private final Duration backoffBase;
+    private final Duration backoffMax;
+    private final RetryBudget retryBudget;
+    private final boolean hedgeEnabled;
+    private final double hedgePercentile;
+    private final int hedgeMinSamples;
+    private final Duration hedgeMinDelay;
+
+    private CallPolicy(Builder builder) {
+        this.connectTimeout = builder.connectTimeout;
+        this.socketTimeout = builder.socketTimeout;
+        this.deadline = builder.deadline;
+        this.maxAttempts = builder.maxAttempts;
+        this.backoffBase = builder.backoffBase;
+        this.backoffMax = builder.backoffMax;
+        this.retryBudget = builder.retryBudget != null ? builder.retryBudget
+                : new RetryBudget(FrameworkConfig.getDouble(BUDGET_PERCENT_KEY, 10), FrameworkConfig.getInt(BUDGET_MIN_RETRIES_KEY, 10));
+        this.hedgeEnabled = builder.hedgeEnabled;
+        this.hedgePercentile = builder.hedgePercentile;
+        this.hedgeMinSamples = builder.hedgeMinSamples;
+        this.hedgeMinDelay = builder.hedgeMinDelay;
+    }
+
+    /**
+     * The configured policy used by ServiceCaller calls that do not pass their own.
+     */
+    public static synchronized CallPolicy current() {
+        if (current == null) {
+            current = builder().build();
+        }
+        return current;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Duration getDeadline() {
+        return deadline;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public RetryBudget getRetryBudget() {
+        return retryBudget;
+    }
+
+    boolean isRetryable(String method) {
+        return maxAttempts > 1 && IDEMPOTENT_METHODS.contains(method);
+    }
+
+    boolean isHedged(String method) {
+        return hedgeEnabled && HEDGED_METHODS.contains(method);
+    }
+
+    // Overloaded or briefly unavailable - worth another try after a pause. Other statuses are the answer.
+    static boolean isRetryableStatus(int statusCode) {
+        return statusCode == 429 || statusCode == 502 || statusCode == 503 || statusCode == 504;
+    }
+
+    /**
+     * Exponential backoff with full jitter - uniformly random up to base * 2^(retry - 1), capped at the maximum,
+     * so that callers failing together do not retry together.
+     */
+    long backoffMillis(int retry, double random) {
+        long ceiling = backoffBase.toMillis() << Math.min(retry - 1, 20);
+        return Math.round(Math.min(ceiling, backoffMax.toMillis()) * random);
+    }
+
+    double getHedgePercentile() {
+        return hedgePercentile;
+    }
+
+    int getHedgeMinSamples() {
+        return hedgeMinSamples;
+    }
+
+    Duration getHedgeMinDelay() {
+        return hedgeMinDelay;
+    }
+
+    // Apache HttpClient timeouts for one attempt - none may run past what is left of the call deadline.
+    RequestConfig requestConfig(Duration remaining) {
+        int remainingMillis = (int) Math.max(Math.min(remaining.toMillis(), Integer.MAX_VALUE), 1);
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(remainingMillis)
+                .setConnectTimeout((int) Math.min(connectTimeout.toMillis(), remainingMillis))
+                .setSocketTimeout((int) Math.min(socketTimeout.toMillis(), remainingMillis))
+                .build();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Call policy - connect: %d ms, socket: %d ms, deadline: %d ms, attempts: %d, backoff: %d..%d ms, hedge: %s",
+                connectTimeout.toMillis(), socketTimeout.toMillis(), deadline.toMillis(), maxAttempts, backoffBase.toMillis(),
+                backoffMax.toMillis(), hedgeEnabled ? "p" + hedgePercentile + " (min " + hedgeMinDelay.toMillis() + " ms)" : "off");
+    }
+
+    public static class Builder {
+        private Duration connectTimeout = Duration.ofMillis(FrameworkConfig.getLong(CONNECT_TIMEOUT_MS_KEY, 10_000));
+        private Duration socketTimeout = Duration.ofMillis(FrameworkConfig.getLong(SOCKET_TIMEOUT_MS_KEY, 30_000));
+        private Duration deadline = Duration.ofMillis(FrameworkConfig.getLong(DEADLINE_MS_KEY, 60_000));
+        private int maxAttempts = FrameworkConfig.getInt(MAX_ATTEMPTS_KEY, 1);
+        private Duration backoffBase = Duration.ofMillis(FrameworkConfig.getLong(BACKOFF_BASE_MS_KEY, 100));
+        private Duration backoffMax = Duration.ofMillis(FrameworkConfig.getLong(BACKOFF_MAX_MS_KEY, 2000));
+        private RetryBudget retryBudget;
+        private boolean hedgeEnabled = FrameworkConfig.getBoolean(HEDGE_ENABLED_KEY, false);
+        private double hedgePercentile = FrameworkConfig.getDouble(HEDGE_PERCENTILE_KEY, 95);
+        private int hedgeMinSamples = FrameworkConfig.getInt(HEDGE_MIN_SAMPLES_KEY, 20);
+        private Duration hedgeMinDelay = Duration.ofMillis(FrameworkConfig.getLong(HEDGE_MIN_DELAY_MS_KEY, 10));
+
+        private Builder() {
+        }
+
+        /** Time to establish a TCP connection (Apache backend - the JDK client's is -Dhttp.jdk.connectTimeoutSeconds). */
+        public Builder connectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /** Longest wait for the next bytes of a response (Apache backend - the JDK client has no equivalent). */
+        public Builder socketTimeout(Duration socketTimeout) {
+            this.socketTimeout = socketTimeout;
+            return this;
+        }
+
+        /** Whole call, all attempts and backoff included - an attempt still running then is abandoned. */
+        public Builder deadline(Duration deadline) {
+            this.deadline = deadline;
+            return this;
+        }
+
+        /** Tries per call, the first included - 1 disables retries. */
+        public Builder maxAttempts(int maxAttempts) {
+            if (maxAttempts < 1) {
+                throw new IllegalArgumentException("A call needs at least one attempt, got: " + maxAttempts);
+            }
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        public Builder backoff(Duration base, Duration max) {
+            this.backoffBase = base;
+            this.backoffMax = max;
+            return this;
+        }
+
+        /** Defaults to a new budget from -Dhttp.retry.budgetPercent / budgetMinRetries - pass one to share it between policies. */
+        public Builder retryBudget(RetryBudget retryBudget) {
+            this.retryBudget = retryBudget;
+            return this;
+        }
+
+        /**
+         * Send a second request when the first has not answered within the given percentile of the endpoint's recent
+         * latencies (once minSamples are known), keeping whichever answers first.
+         */
+        public Builder hedge(double percentile, int minSamples) {
+            this.hedgeEnabled = true;
+            this.hedgePercentile = percentile;
+            this.hedgeMinSamples = minSamples;
+            return this;
+        }
+
+        public Builder noHedge() {
+            this.hedgeEnabled = false;
+            return this;
+        }
+
+        /** Hedges are never sent sooner than this, however fast the endpoint usually is. */
+        public Builder hedgeMinDelay(Duration hedgeMinDelay) {
+            this.hedgeMinDelay = hedgeMinDelay;
+            return this;
+        }
+
+        public CallPolicy build() {
+            return new CallPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package util;
+
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static util.LogWrapper.logInfo;
+
+/**
+ * Parse-once cache of expected JSON fixture files, shared by all suites.
+ * Entries are keyed by absolute path and re-parsed only when the file's modification time or size changes,
+ * and the least recently used entries are evicted once the entry or (file) byte limits are exceeded.
+ * Note: each call returns its own deep copy of the cached tree, so a test modifying its expected data cannot change
+ * what other tests (or threads) get - copying a tree in memory is still far cheaper than reading and parsing the file.
+ * Limits are configurable with -Dfixture.cache.maxEntries and -Dfixture.cache.maxBytes.
+ */
+public class FixtureStore {
+
+    public static final String MAX_ENTRIES_KEY = "fixture.cache.maxEntries";
+    public static final String MAX_BYTES_KEY = "fixture.cache.maxBytes";
+
+    private static final int MAX_ENTRIES = FrameworkConfig.getInt(MAX_ENTRIES_KEY, 512);
+    private static final long MAX_BYTES = FrameworkConfig.getLong(MAX_BYTES_KEY, 64L * 1024 * 1024);
+
+    private record Entry(JsonObject json, long modifiedMillis, long sizeBytes) {
+    }
+
+    // Access ordered, so iteration starts from the least recently used entry.
+    private static final LinkedHashMap<Path, Entry> cache = new LinkedHashMap<>(64, 0.75f, true);
+    private static long cachedBytes = 0;
+
+    private FixtureStore() {
+    }
+
+    /**
+     * The parsed fixture, as a private copy the caller may modify.
+     */
+    public static JsonObject getJson(Path fixturePath) throws IOException {
+        Path key = fixturePath.toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+        long modifiedMillis = attributes.lastModifiedTime().toMillis();
+
+        synchronized (cache) {
+            Entry cached = cache.get(key);
+            if (cached != null && cached.modifiedMillis() == modifiedMillis && cached.sizeBytes() == attributes.size()) {
+                return cached.json().deepCopy();
+            }
+        }
+
+        // Parse outside the lock so that parallel preloading is not serialised - a rare duplicate parse is harmless.
+        // The parsed tree stays in the cache and is never handed out - callers only ever see copies.
+        JsonObject json = JsonConvertor.getJsonFromFile(key);
+        Entry entry = new Entry(json, modifiedMillis, attributes.size());
+        synchronized (cache) {
+            Entry replaced = cache.put(key, entry);
+            if (replaced != null) {
+                cachedBytes -= replaced.sizeBytes();
+            }
+            cachedBytes += entry.sizeBytes();
+            evictIfNeeded();
+        }
+        return json.deepCopy();
+    }
+
+    /**
+     * Loads and parses every .json file under the directory in parallel, so tests start with a warm cache.
+     * Returns the number of fixtures loaded.
+     */
+    public static int preload(Path fixtureDirectory) throws IOException {
+        List<Path> fixtures;
+        try (Stream<Path> files = Files.walk(fixtureDirectory)) {
+            fixtures = files.filter(path -> path.toString().endsWith(".json") && Files.isRegularFile(path)).toList();
+        }
+        try {
+            fixtures.parallelStream().forEach(path -> {
+                try {
+                    getJson(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        logInfo("Preloaded " + fixtures.size() + " JSON fixtures from: " + fixtureDirectory);
+        return fixtures.size();
+    }
+
+    public static void clear() {
+        synchronized (cache) {
+            cache.clear();
+            cachedBytes = 0;
+        }
+    }
+
+    public static int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    // Caller holds the cache lock. The newest entry is always kept, even if it alone exceeds the byte limit.
+    private static void evictIfNeeded() {
+        Iterator<Map.Entry<Path, Entry>> eldest = cache.entrySet().iterator();
+        while (cache.size() > 1 && (cache.size() > MAX_ENTRIES || cachedBytes > MAX_BYTES) && eldest.hasNext()) {
+            cachedBytes -= eldest.next().getValue().sizeBytes();
+            eldest.remove();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package util;
+
+/**
+ * Central lookup for framework tuning values.
+ * Values are read from JVM system properties (e.g. -Dhttp.pool.maxTotal=50 or surefire systemPropertyVariables)
+ * so that they can be overridden per environment without code changes.
+ * Design Note: this is the natural place to plug in a dotenv style environment file later on.
+ */
+public class FrameworkConfig {
+
+    private FrameworkConfig() {
+    }
+
+    public static String getString(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        return (value == null || value.isBlank()) ? defaultValue : value.trim();
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = getString(key, null);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = getString(key, null);
+        return value == null ? defaultValue : Long.parseLong(value);
+    }
+
+    public static double getDouble(String key, double defaultValue) {
+        String value = getString(key, null);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+}
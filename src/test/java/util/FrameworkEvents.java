@@ -0,0 +1,107 @@
+package util;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder events for the framework's own hot paths - the network call, JSON parsing, header validation
+ * and body comparison - so a slow load or soak run shows where the time went (network, Gson, regex or JsonUnit)
+ * in JDK Mission Control without attaching a profiler. Recorded with -Djfr.enabled=true (see {@link JfrRecordingExtension}),
+ * or any other JFR recording of the test JVM.
+ * Design Note: events cost next to nothing while no recording is running - begin/end/commit are no-ops until JFR enables
+ * the event type, and the string fields are only set once shouldCommit() says the event will be kept.
+ * Stack traces are off so that per-request events stay cheap at load test volumes.
+ */
+public final class FrameworkEvents {
+
+    private static final String CATEGORY = "API Test Framework";
+
+    private FrameworkEvents() {
+    }
+
+    @Name("util.HttpRequest")
+    @Label("HTTP Request")
+    @Description("A request made through ServiceCaller, from sending it until the response body was consumed")
+    @Category({CATEGORY, "HTTP"})
+    @StackTrace(false)
+    public static class HttpRequest extends Event {
+        @Label("Method")
+        public String method;
+
+        @Label("URI")
+        public String uri;
+
+        @Label("Status Code")
+        public int statusCode;
+
+        @Label("Response Bytes")
+        @DataAmount
+        public long responseBytes;
+
+        @Label("Failure")
+        @Description("Exception message when no response was received")
+        public String failure;
+    }
+
+    @Name("util.JsonParse")
+    @Label("JSON Parse")
+    @Description("Gson parsing a response body or fixture file into a JsonObject")
+    @Category({CATEGORY, "JSON"})
+    @StackTrace(false)
+    public static class JsonParse extends Event {
+        @Label("Source")
+        @Description("'string' or the fixture file path")
+        public String source;
+
+        @Label("Characters")
+        @Description("Length of a parsed string - 0 for a file")
+        public long characters;
+
+        @Label("File Size")
+        @Description("Size of a parsed file on disk - 0 for a string, or when the file is missing")
+        @DataAmount
+        public long bytes;
+    }
+
+    @Name("util.HeaderCompile")
+    @Label("Header Expectations Compile")
+    @Description("Compiling expected headers, including the regex patterns of dynamic headers")
+    @Category({CATEGORY, "Validation"})
+    @StackTrace(false)
+    public static class HeaderCompile extends Event {
+        @Label("Expectations")
+        public int expectationCount;
+    }
+
+    @Name("util.HeaderValidation")
+    @Label("Header Validation")
+    @Description("Checking the actual response headers against compiled expectations")
+    @Category({CATEGORY, "Validation"})
+    @StackTrace(false)
+    public static class HeaderValidation extends Event {
+        @Label("Headers Received")
+        public int headerCount;
+
+        @Label("Failures")
+        public int failureCount;
+    }
+
+    @Name("util.BodyComparison")
+    @Label("Body Comparison")
+    @Description("Comparing an expected JSON body with the actual response body")
+    @Category({CATEGORY, "Validation"})
+    @StackTrace(false)
+    public static class BodyComparison extends Event {
+        @Label("Comparator")
+        @Description("'KeyedJsonComparator', 'BodyTemplate' or 'JsonUnit' (IGNORING_ARRAY_ORDER)")
+        public String comparator;
+
+        @Label("Differences")
+        public int differenceCount;
+    }
+}
@@ -0,0 +1,156 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static util.LogWrapper.logError;
+
+/**
+ * Expected response headers compiled once into a reusable, thread-safe check.
+ * Values prefixed with {@link #DYNAMIC_HEADER_INDICATOR} are compiled to a regex up front, exact values are compared as is,
+ * and an expected value given as a Collection means every listed value must be present (e.g. repeated Set-Cookie headers).
+ * Header names are matched case-insensitively, and a repeated actual header passes when any of its values matches.
+ * Design Note: compiling per call (String.replace + Pattern.compile for each dynamic header) dominates validation cost
+ * when the same expectations are checked against thousands of responses.
+ */
+public class HeaderExpectations {
+
+    public static final String DYNAMIC_HEADER_INDICATOR = "matchesPattern:";
+
+    // Data providers build a fresh Map.of per call, so compiled expectations are shared by map equality.
+    // Note: bounded and least recently used first out - data-driven runs can pass a distinct map per row.
+    private static final int COMPILED_CACHE_SIZE = 256;
+    private static final Map<Map<String, Object>, HeaderExpectations> COMPILED_CACHE =
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Map<String, Object>, HeaderExpectations> eldest) {
+                    return size() > COMPILED_CACHE_SIZE;
+                }
+            };
+
+    private final List<Expectation> expectations;
+
+    private record Expectation(String name, String exactValue, Pattern pattern) {
+        boolean matches(String actualValue) {
+            return pattern != null ? pattern.matcher(actualValue).matches() : exactValue.equals(actualValue);
+        }
+    }
+
+    private HeaderExpectations(List<Expectation> expectations) {
+        this.expectations = expectations;
+    }
+
+    public static HeaderExpectations compile(Map<String, Object> expectedHeaders) {
+        FrameworkEvents.HeaderCompile event = new FrameworkEvents.HeaderCompile();
+        event.begin();
+        List<Expectation> compiled = new ArrayList<>();
+        expectedHeaders.forEach((name, value) -> {
+            if (value instanceof Collection<?> values) {
+                values.forEach(single -> compiled.add(compileEntry(name, single)));
+            } else {
+                compiled.add(compileEntry(name, value));
+            }
+        });
+        event.end();
+        if (event.shouldCommit()) {
+            event.expectationCount = compiled.size();
+            event.commit();
+        }
+        return new HeaderExpectations(List.copyOf(compiled));
+    }
+
+    /**
+     * Compiled expectations for the map, reusing a recent compilation of an equal map.
+     * Callers checking the same expectations many times should hold the result of {@link #compile(Map)} instead.
+     */
+    public static HeaderExpectations cached(Map<String, Object> expectedHeaders) {
+        synchronized (COMPILED_CACHE) {
+            HeaderExpectations existing = COMPILED_CACHE.get(expectedHeaders);
+            if (existing != null) {
+                return existing;
+            }
+        }
+        // Compiled outside the lock - two threads may both compile a new map, the results are equivalent.
+        HeaderExpectations compiled = compile(expectedHeaders);
+        synchronized (COMPILED_CACHE) {
+            COMPILED_CACHE.put(Map.copyOf(expectedHeaders), compiled);
+        }
+        return compiled;
+    }
+
+    private static Expectation compileEntry(String name, Object value) {
+        String expected = value.toString();
+        if (!expected.startsWith(DYNAMIC_HEADER_INDICATOR)) {
+            return new Expectation(name, expected, null);
+        }
+        String pattern = expected.substring(DYNAMIC_HEADER_INDICATOR.length());
+        try {
+            return new Expectation(name, null, Pattern.compile(pattern));
+        } catch (PatternSyntaxException pse) {
+            logError(String.format(
+                    "Error in test data - could not extract a match pattern from dynamic header %s with pattern %s using indicator string: %s",
+                    name, pattern, DYNAMIC_HEADER_INDICATOR));
+            throw pse;
+        }
+    }
+
+    /**
+     * Returns a description of every missing or mismatched header - an empty list when all expectations are met.
+     * Note: no allocation happens on the passing path beyond the header lookups themselves.
+     */
+    public List<String> validate(Map<String, Object> actualHeaders) {
+        List<String> incorrectEntries = null;
+        for (Expectation expectation : expectations) {
+            Object actualValue = lookup(actualHeaders, expectation.name());
+            String failure = null;
+            if (actualValue == null) {
+                failure = "Missing header - expected: " + expectation.name() + " not found in actual headers received.";
+            } else if (!anyValueMatches(expectation, actualValue)) {
+                failure = expectation.pattern() != null
+                        ? String.format("Dynamic Header value for '%s' does not match pattern -: %s \tactual value: %s",
+                        expectation.name(), expectation.pattern().pattern(), actualValue)
+                        : String.format("Header value for '%s' does not exact match - expected value: %s \tactual value: %s",
+                        expectation.name(), expectation.exactValue(), actualValue);
+            }
+            if (failure != null) {
+                if (incorrectEntries == null) {
+                    incorrectEntries = new ArrayList<>();
+                }
+                incorrectEntries.add(failure);
+            }
+        }
+        return incorrectEntries == null ? Collections.emptyList() : incorrectEntries;
+    }
+
+    private static boolean anyValueMatches(Expectation expectation, Object actualValue) {
+        if (actualValue instanceof Collection<?> values) {
+            for (Object value : values) {
+                if (expectation.matches(value.toString())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return expectation.matches(actualValue.toString());
+    }
+
+    // Response header maps are case-insensitive already - the scan only runs for plain maps built elsewhere.
+    private static Object lookup(Map<String, Object> actualHeaders, String name) {
+        Object value = actualHeaders.get(name);
+        if (value != null) {
+            return value;
+        }
+        for (Map.Entry<String, Object> entry : actualHeaders.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(name)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,17 @@
+package util;
+
+/**
+ * The HTTP implementation behind {@link ServiceCaller} - selected with -Dhttp.backend=apache|jdk (default apache).
+ * APACHE - Apache HttpClient 4.5 ({@link HttpClientEngine}), HTTP/1.1 with a keep-alive connection pool.
+ * JDK - java.net.http ({@link JdkHttpEngine}), HTTP/2 where the server supports it, many requests multiplexed per connection.
+ */
+public enum HttpBackend {
+    APACHE,
+    JDK;
+
+    public static final String HTTP_BACKEND_KEY = "http.backend";
+
+    public static HttpBackend current() {
+        return valueOf(FrameworkConfig.getString(HTTP_BACKEND_KEY, APACHE.name()).toUpperCase());
+    }
+}
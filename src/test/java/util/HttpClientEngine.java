@@ -0,0 +1,239 @@
+package util;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.ssl.SSLContexts;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static util.LogWrapper.logError;
+import static util.LogWrapper.logInfo;
+
+/**
+ * Long-lived, pooled HTTP client shared by all service calls.
+ * Design Note: creating a client per request forces a new TCP + TLS handshake on every call and leaks client instances,
+ * so a single keep-alive engine is built lazily on first use and closed from a JVM shutdown hook.
+ * All limits are configurable through {@link FrameworkConfig} system properties (see the constants below).
+ */
+public class HttpClientEngine {
+
+    public static final String MAX_TOTAL_KEY = "http.pool.maxTotal";
+    public static final String MAX_PER_ROUTE_KEY = "http.pool.maxPerRoute";
+    public static final String TTL_SECONDS_KEY = "http.pool.ttlSeconds";
+    public static final String IDLE_EVICT_SECONDS_KEY = "http.pool.idleEvictSeconds";
+    public static final String VALIDATE_AFTER_INACTIVITY_MS_KEY = "http.pool.validateAfterInactivityMs";
+    public static final String TLS_SESSION_CACHE_SIZE_KEY = "http.tls.sessionCacheSize";
+    public static final String TLS_SESSION_TIMEOUT_SECONDS_KEY = "http.tls.sessionTimeoutSeconds";
+
+    private static volatile HttpClientEngine instance;
+    private static boolean shutdownHookRegistered = false;
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+
+    private HttpClientEngine() {
+        // One SSL context for the life of the engine - JSSE caches sessions per context, so handshakes can be resumed.
+        SSLContext sslContext = SSLContexts.createSystemDefault();
+        SSLSessionContext sessionContext = sslContext.getClientSessionContext();
+        if (sessionContext != null) {
+            sessionContext.setSessionCacheSize(FrameworkConfig.getInt(TLS_SESSION_CACHE_SIZE_KEY, 1000));
+            sessionContext.setSessionTimeout(FrameworkConfig.getInt(TLS_SESSION_TIMEOUT_SECONDS_KEY, 3600));
+        }
+
+        Registry<ConnectionSocketFactory> socketFactories = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", new TimedPlainSocketFactory())
+                .register("https", new TimedSslSocketFactory(sslContext))
+                .build();
+
+        this.connectionManager = new PoolingHttpClientConnectionManager(socketFactories, null, null, null,
+                FrameworkConfig.getLong(TTL_SECONDS_KEY, 300), TimeUnit.SECONDS);
+        connectionManager.setMaxTotal(FrameworkConfig.getInt(MAX_TOTAL_KEY, 200));
+        connectionManager.setDefaultMaxPerRoute(FrameworkConfig.getInt(MAX_PER_ROUTE_KEY, 50));
+        connectionManager.setValidateAfterInactivity(FrameworkConfig.getInt(VALIDATE_AFTER_INACTIVITY_MS_KEY, 2000));
+
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                // Note: closing the client also closes the pool, so shutdown() only needs to close the client.
+                .setConnectionManagerShared(false)
+                .evictExpiredConnections()
+                .evictIdleConnections(FrameworkConfig.getLong(IDLE_EVICT_SECONDS_KEY, 30), TimeUnit.SECONDS)
+                // Without this, TLS connections are tagged with a user token and are never handed back out for reuse.
+                .disableConnectionState()
+                // Response headers have been received - the time to first byte for RequestTimings.
+                .addInterceptorLast((HttpResponseInterceptor) (response, context) -> {
+                    RequestTimings.Recorder recorder = RequestTimings.Recorder.from(context);
+                    if (recorder != null) {
+                        recorder.firstByteReceived();
+                    }
+                })
+                .build();
+    }
+
+    public static HttpClientEngine getInstance() {
+        HttpClientEngine engine = instance;
+        if (engine == null) {
+            synchronized (HttpClientEngine.class) {
+                engine = instance;
+                if (engine == null) {
+                    engine = new HttpClientEngine();
+                    instance = engine;
+                    if (!shutdownHookRegistered) {
+                        Runtime.getRuntime().addShutdownHook(new Thread(HttpClientEngine::shutdown, "http-client-engine-shutdown"));
+                        shutdownHookRegistered = true;
+                    }
+                }
+            }
+        }
+        return engine;
+    }
+
+    public static CloseableHttpClient getClient() {
+        return getInstance().httpClient;
+    }
+
+    /**
+     * Snapshot of the connection pool - leased, available, pending (waiting for a connection) and max.
+     */
+    public static PoolStats getPoolStats() {
+        return getInstance().connectionManager.getTotalStats();
+    }
+
+    /**
+     * Opens up to 'count' connections to the target's host (capped by -Dhttp.pool.maxPerRoute) and returns them to the pool
+     * idle, so the first requests skip the TCP connect - and for https the TLS handshake, which also primes the session cache.
+     * Returns the number of connections newly opened (already open idle ones are counted as available, not reopened).
+     */
+    public static int preopenConnections(URI target, int count, int connectTimeoutMillis) throws IOException {
+        HttpClientEngine engine = getInstance();
+        boolean secure = "https".equalsIgnoreCase(target.getScheme());
+        int port = target.getPort() > 0 ? target.getPort() : (secure ? 443 : 80);
+        HttpRoute route = new HttpRoute(new HttpHost(target.getHost(), port, target.getScheme()), null, secure);
+        int connections = Math.min(count, engine.connectionManager.getMaxPerRoute(route));
+
+        // All are leased before any is released - otherwise the pool would hand the same connection back each time.
+        List<HttpClientConnection> leased = new ArrayList<>(connections);
+        int opened = 0;
+        try {
+            for (int i = 0; i < connections; i++) {
+                HttpClientConnection connection = engine.connectionManager.requestConnection(route, null)
+                        .get(connectTimeoutMillis, TimeUnit.MILLISECONDS);
+                leased.add(connection);
+                if (!connection.isOpen()) {
+                    HttpClientContext context = HttpClientContext.create();
+                    engine.connectionManager.connect(connection, route, connectTimeoutMillis, context);
+                    engine.connectionManager.routeComplete(connection, route, context);
+                    opened++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted opening connections to " + route);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to open connections to " + route, e.getCause());
+        } finally {
+            for (HttpClientConnection connection : leased) {
+                engine.connectionManager.releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS);
+            }
+        }
+        return opened;
+    }
+
+    public static String describePoolStats() {
+        return describe(getPoolStats());
+    }
+
+    /**
+     * Closes the shared client and its pool. A later call to {@link #getClient()} builds a fresh engine.
+     */
+    public static void shutdown() {
+        HttpClientEngine engine;
+        synchronized (HttpClientEngine.class) {
+            engine = instance;
+            instance = null;
+        }
+        if (engine == null) {
+            return;
+        }
+        logInfo("Closing shared HTTP client. Final " + describe(engine.connectionManager.getTotalStats()));
+        try {
+            engine.httpClient.close();
+        } catch (IOException e) {
+            logError("Error closing shared HTTP client: " + e.getMessage());
+        }
+    }
+
+    private static String describe(PoolStats stats) {
+        return String.format("HTTP pool - leased: %d, available: %d, pending: %d, max: %d",
+                stats.getLeased(), stats.getAvailable(), stats.getPending(), stats.getMax());
+    }
+
+    /* Socket factories that time new connections into the request's RequestTimings.Recorder (if any).
+       Pooled connections that are reused never reach these, so their connect / TLS times are zero.
+     */
+    private static class TimedPlainSocketFactory extends PlainConnectionSocketFactory {
+        @Override
+        public Socket connectSocket(int connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress,
+                                    InetSocketAddress localAddress, HttpContext context) throws IOException {
+            long start = System.nanoTime();
+            Socket connected = super.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+            RequestTimings.Recorder recorder = RequestTimings.Recorder.from(context);
+            if (recorder != null) {
+                recorder.connected(System.nanoTime() - start);
+            }
+            return connected;
+        }
+    }
+
+    private static class TimedSslSocketFactory extends SSLConnectionSocketFactory {
+        TimedSslSocketFactory(SSLContext sslContext) {
+            super(sslContext);
+        }
+
+        // Includes the handshake (done in createLayeredSocket) - the recorder subtracts it to leave the TCP connect.
+        @Override
+        public Socket connectSocket(int connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress,
+                                    InetSocketAddress localAddress, HttpContext context) throws IOException {
+            long start = System.nanoTime();
+            Socket connected = super.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+            RequestTimings.Recorder recorder = RequestTimings.Recorder.from(context);
+            if (recorder != null) {
+                recorder.connected(System.nanoTime() - start);
+            }
+            return connected;
+        }
+
+        @Override
+        public Socket createLayeredSocket(Socket socket, String target, int port, HttpContext context) throws IOException {
+            long start = System.nanoTime();
+            Socket layered = super.createLayeredSocket(socket, target, port, context);
+            RequestTimings.Recorder recorder = RequestTimings.Recorder.from(context);
+            if (recorder != null) {
+                recorder.tlsHandshakeCompleted(System.nanoTime() - start);
+            }
+            return layered;
+        }
+    }
+}
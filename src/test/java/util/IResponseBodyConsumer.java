@@ -0,0 +1,16 @@
+package util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Receives the response body as a stream while it arrives, instead of the body being buffered into a String.
+ * Used for payloads too large to hold in memory - see {@link ServiceCaller#getRequest(String, IResponseBodyConsumer)}.
+ */
+@FunctionalInterface
+public interface IResponseBodyConsumer {
+
+    void consume(InputStream body, Charset charset) throws IOException;
+
+}
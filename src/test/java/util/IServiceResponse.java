@@ -1,5 +1,6 @@
 package util;
 
+import java.util.List;
 import java.util.Map;
 
 public interface IServiceResponse {
@@ -8,8 +9,18 @@ public interface IServiceResponse {
 
     String getStatusText();
 
+    // Header names are case-insensitive - a repeated header maps to a List<String> of all its values.
     Map<String,Object> getHeaders();
 
+    // All values of a header (empty if absent), regardless of whether it was repeated.
+    List<String> getHeaderValues(String name);
+
     String getBody(); // Could be json or xml or any response text.
 
+    // Connect / TLS / time to first byte / total time and body size of the call that produced this response.
+    RequestTimings getTimings();
+
+    // Every try made for this response - first, retries and hedges (see ResilientCall). Empty when none went to the network.
+    List<CallAttempt> getAttempts();
+
 }
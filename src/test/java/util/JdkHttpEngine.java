@@ -0,0 +1,54 @@
+package util;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared java.net.http client for the {@link HttpBackend#JDK} backend.
+ * Design Note: HTTP/2 multiplexes concurrent requests to a host over one connection, and sendAsync does not hold a thread
+ * while waiting for the server - so many requests in flight need neither a connection nor a thread each.
+ * A small fixed pool (-Dhttp.jdk.threads, default the number of processors) runs the response handling and callbacks.
+ * Plain http and HTTP/1.1-only servers are served over HTTP/1.1 by the same client.
+ */
+public class JdkHttpEngine {
+
+    public static final String THREADS_KEY = "http.jdk.threads";
+    public static final String CONNECT_TIMEOUT_SECONDS_KEY = "http.jdk.connectTimeoutSeconds";
+
+    private static volatile HttpClient client;
+
+    private JdkHttpEngine() {
+    }
+
+    public static HttpClient getClient() {
+        HttpClient existing = client;
+        if (existing == null) {
+            synchronized (JdkHttpEngine.class) {
+                existing = client;
+                if (existing == null) {
+                    existing = HttpClient.newBuilder()
+                            .version(HttpClient.Version.HTTP_2)
+                            .followRedirects(HttpClient.Redirect.NEVER)
+                            .connectTimeout(Duration.ofSeconds(FrameworkConfig.getLong(CONNECT_TIMEOUT_SECONDS_KEY, 10)))
+                            .executor(newExecutor(FrameworkConfig.getInt(THREADS_KEY, Runtime.getRuntime().availableProcessors())))
+                            .build();
+                    client = existing;
+                }
+            }
+        }
+        return existing;
+    }
+
+    // Daemon threads, so an idle client never keeps the test JVM alive (the JDK client has no close() before Java 21).
+    private static ExecutorService newExecutor(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "jdk-http-client-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,109 @@
+package util;
+
+import org.apache.http.impl.EnglishReasonPhraseCatalog;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@link IServiceResponse} for the java.net.http backend (see {@link JdkHttpEngine}).
+ * Headers follow the same convention as {@link ServiceResponse} - a case-insensitive map, repeated headers as a List.
+ * Note: HTTP/2 has no reason phrase on the wire, so the status text is the standard English phrase for the code.
+ */
+public class JdkServiceResponse implements IServiceResponse {
+
+    private final int statusCode;
+    private final HttpClient.Version version;
+    private final Map<String, Object> headers;
+    private final String rawResponse;
+    private final RequestTimings timings;
+    private volatile List<CallAttempt> attempts = List.of();
+
+    public JdkServiceResponse(HttpResponse<byte[]> response, RequestTimings.Recorder timingRecorder) {
+        this.statusCode = response.statusCode();
+        this.version = response.version();
+        this.headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        response.headers().map().forEach((name, values) -> {
+            // HTTP/2 pseudo headers (':status') are not response headers.
+            if (!name.startsWith(":")) {
+                headers.put(name, values.size() == 1 ? values.get(0) : List.copyOf(values));
+            }
+        });
+        byte[] body = response.body();
+        this.rawResponse = body == null ? null : new String(body, charset(response));
+        this.timings = timingRecorder == null ? RequestTimings.NONE : timingRecorder.finish(body == null ? 0 : body.length);
+    }
+
+    private static Charset charset(HttpResponse<?> response) {
+        String contentType = response.headers().firstValue("Content-Type").orElse("");
+        int index = contentType.toLowerCase(Locale.ROOT).indexOf("charset=");
+        if (index >= 0) {
+            String name = contentType.substring(index + "charset=".length()).split(";")[0].trim().replace("\"", "");
+            try {
+                return Charset.forName(name);
+            } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+                // Fall through to the JSON default.
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    @Override
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    @Override
+    public String getStatusText() {
+        String reason = EnglishReasonPhraseCatalog.INSTANCE.getReason(statusCode, Locale.ENGLISH);
+        return reason == null ? "" : reason;
+    }
+
+    @Override
+    public Map<String, Object> getHeaders() {
+        return headers;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<String> getHeaderValues(String name) {
+        Object value = headers.get(name);
+        if (value == null) {
+            return List.of();
+        }
+        return value instanceof List<?> ? (List<String>) value : List.of((String) value);
+    }
+
+    @Override
+    public String getBody() {
+        return rawResponse;
+    }
+
+    @Override
+    public RequestTimings getTimings() {
+        return timings;
+    }
+
+    @Override
+    public List<CallAttempt> getAttempts() {
+        return attempts;
+    }
+
+    // Set by ResilientCall once the call is settled.
+    void setAttempts(List<CallAttempt> attempts) {
+        this.attempts = attempts;
+    }
+
+    // HTTP_2 when the connection was multiplexed, HTTP_1_1 otherwise.
+    public HttpClient.Version getProtocolVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,71 @@
+package util;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+
+import static util.LogWrapper.logError;
+import static util.LogWrapper.logInfo;
+
+/**
+ * With -Djfr.enabled=true, records a JDK Flight Recorder file per suite run at target/jfr/<suite>.jfr (-Djfr.dir),
+ * using the JDK's 'profile' settings (-Djfr.settings=default for lower overhead) plus all {@link FrameworkEvents}.
+ * Open the file in JDK Mission Control, or summarise it with: jfr print --events util.HttpRequest target/jfr/<suite>.jfr
+ * Register on a suite with @ExtendWith(JfrRecordingExtension.class).
+ * Note: JFR records the whole JVM - when suites run in parallel each file also holds events from the other suites.
+ */
+public class JfrRecordingExtension implements BeforeAllCallback, AfterAllCallback {
+
+    public static final String ENABLED_KEY = "jfr.enabled";
+    public static final String DIRECTORY_KEY = "jfr.dir";
+    public static final String SETTINGS_KEY = "jfr.settings";
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(JfrRecordingExtension.class);
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        if (!FrameworkConfig.getBoolean(ENABLED_KEY, false)) {
+            return;
+        }
+        String settings = FrameworkConfig.getString(SETTINGS_KEY, "profile");
+        try {
+            Recording recording = new Recording(Configuration.getConfiguration(settings));
+            recording.setName(context.getRequiredTestClass().getSimpleName());
+            for (Class<?> event : FrameworkEvents.class.getDeclaredClasses()) {
+                recording.enable(event.asSubclass(Event.class));
+            }
+            recording.start();
+            context.getStore(NAMESPACE).put(Recording.class, recording);
+        } catch (IOException | ParseException e) {
+            // Profiling is a diagnostic aid - never fail the suite over it.
+            logError("Could not start JFR recording with settings '" + settings + "': " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) {
+        Recording recording = context.getStore(NAMESPACE).remove(Recording.class, Recording.class);
+        if (recording == null) {
+            return;
+        }
+        Path file = Paths.get(FrameworkConfig.getString(DIRECTORY_KEY, "target/jfr"))
+                .resolve(context.getRequiredTestClass().getSimpleName() + ".jfr");
+        try (recording) {
+            recording.stop();
+            Files.createDirectories(file.getParent());
+            recording.dump(file);
+            logInfo("JFR recording saved to: " + file);
+        } catch (IOException e) {
+            logError("Could not save JFR recording to " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -3,15 +3,16 @@ package util;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonSyntaxException;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
-import java.util.List;
-import java.util.stream.Collectors;
 
 import static util.LogWrapper.logError;
 import static util.LogWrapper.logInfo;
@@ -28,31 +29,51 @@ public class JsonConvertor {
 
 
     public static JsonObject getJsonFromString(String jsonAsString) {
+        FrameworkEvents.JsonParse event = new FrameworkEvents.JsonParse();
+        event.begin();
         try {
             return gson.fromJson(jsonAsString, JsonObject.class);
         } catch (JsonSyntaxException e) {
             logError("Error when converting string to Json Object: " + jsonAsString);
             throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.source = "string";
+                event.characters = jsonAsString == null ? 0 : jsonAsString.length();
+                event.commit();
+            }
         }
     }
 
+    /**
+     * Parses the file straight from a buffered reader - the content is never held as an intermediate String,
+     * and values are kept exactly as written.
+     * Note: prefer {@link FixtureStore#getJson(Path)} for expected data fixtures, which parses each file only once.
+     */
     public static JsonObject getJsonFromFile(Path inputFilePath) throws IOException {
         logInfo("Loading JSON input file: " + inputFilePath);
-        String rawResponse = "";
-        try {
-            List<String> inputLines = Files.readAllLines(inputFilePath, StandardCharsets.UTF_8);
-            rawResponse = inputLines.stream().map(String::trim).collect(Collectors.joining());
-            return gson.fromJson(rawResponse, JsonObject.class);
+        FrameworkEvents.JsonParse event = new FrameworkEvents.JsonParse();
+        event.begin();
+        try (Reader reader = Files.newBufferedReader(inputFilePath, StandardCharsets.UTF_8)) {
+            return gson.fromJson(reader, JsonObject.class);
 
-        } catch (FileNotFoundException fnfe) {
+        } catch (FileNotFoundException | NoSuchFileException fnfe) {
             logError("Error with finding input file: " + inputFilePath);
             throw fnfe;
         } catch (IOException ioe) {
             logError("Error when reading input file: " + inputFilePath);
             throw ioe;
-        } catch (JsonSyntaxException e) {
-            logError("Error when converting file contents to Json Object: " + rawResponse);
+        } catch (JsonParseException e) {
+            logError("Error when converting file contents to Json Object: " + inputFilePath + " - " + e.getMessage());
             throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.source = inputFilePath.toString();
+                event.bytes = inputFilePath.toFile().length();
+                event.commit();
+            }
         }
     }
 }
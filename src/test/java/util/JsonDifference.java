@@ -0,0 +1,70 @@
+package util;
+
+import net.javacrumbs.jsonunit.core.Configuration;
+import net.javacrumbs.jsonunit.core.listener.Difference;
+import net.javacrumbs.jsonunit.core.listener.DifferenceContext;
+import net.javacrumbs.jsonunit.core.listener.DifferenceListener;
+
+/**
+ * A body difference found by the framework's own comparators ({@link KeyedJsonComparator}, {@link BodyTemplate}),
+ * reported through the JsonUnit {@link DifferenceListener} interface so listeners and failure logging are shared with JsonUnit.
+ */
+record JsonDifference(Difference.Type type, String expectedPath, String actualPath, Object expected, Object actual)
+        implements Difference {
+
+    private static final DifferenceContext CONTEXT = new DifferenceContext() {
+        @Override
+        public Configuration getConfiguration() {
+            return Configuration.empty();
+        }
+
+        @Override
+        public Object getActualSource() {
+            return null;
+        }
+
+        @Override
+        public Object getExpectedSource() {
+            return null;
+        }
+    };
+
+    static void report(Difference.Type type, String expectedPath, String actualPath, Object expected, Object actual,
+                       DifferenceListener listener) {
+        listener.diff(new JsonDifference(type, expectedPath, actualPath, expected, actual), CONTEXT);
+    }
+
+    @Override
+    public String getActualPath() {
+        return actualPath;
+    }
+
+    @Override
+    public String getExpectedPath() {
+        return expectedPath;
+    }
+
+    @Override
+    public Object getActual() {
+        return actual;
+    }
+
+    @Override
+    public Object getExpected() {
+        return expected;
+    }
+
+    @Override
+    public Difference.Type getType() {
+        return type;
+    }
+
+    @Override
+    public String toString() {
+        return switch (type) {
+            case MISSING -> "MISSING: " + expectedPath + " expected " + expected + " but not found in actual";
+            case EXTRA -> "EXTRA: " + actualPath + " found " + actual + " but not expected";
+            case DIFFERENT -> "CHANGED: " + expectedPath + " expected " + expected + " actual " + actual;
+        };
+    }
+}
@@ -0,0 +1,57 @@
+package util;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Array key declarations such as 'data[*].id' and the difference paths built from them - shared by
+ * {@link KeyedJsonComparator} and {@link BodyTemplate}, so both match keyed arrays and name their elements the same way.
+ */
+final class JsonKeyPaths {
+
+    private JsonKeyPaths() {
+    }
+
+    /**
+     * Array path (wildcards for nesting, e.g. 'data' or 'groups[*].members') to key field path within each element.
+     */
+    static Map<String, String[]> parse(String... keyPaths) {
+        Map<String, String[]> arrayKeys = new HashMap<>();
+        for (String keyPath : keyPaths) {
+            int split = keyPath.lastIndexOf("[*].");
+            if (split < 0) {
+                throw new IllegalArgumentException("Array key path must look like 'array[*].keyField', got: " + keyPath);
+            }
+            arrayKeys.put(keyPath.substring(0, split), keyPath.substring(split + 4).split("\\."));
+        }
+        return Map.copyOf(arrayKeys);
+    }
+
+    // The element's key, or null when it has none (not an object, or the field is missing or null).
+    static JsonElement extractKey(JsonElement element, String[] keyField) {
+        JsonElement current = element;
+        for (String field : keyField) {
+            if (current == null || !current.isJsonObject()) {
+                return null;
+            }
+            current = current.getAsJsonObject().get(field);
+        }
+        return current == null || current.isJsonNull() ? null : current;
+    }
+
+    // An element named by its key, e.g. 'data[id=3]'.
+    static String keyed(String path, String keyName, JsonElement key) {
+        return path + "[" + keyName + "=" + keyText(key) + "]";
+    }
+
+    static String child(String path, String name) {
+        return path.isEmpty() ? name : path + "." + name;
+    }
+
+    private static String keyText(JsonElement key) {
+        return key instanceof JsonPrimitive primitive && primitive.isString() ? primitive.getAsString() : key.toString();
+    }
+}
@@ -0,0 +1,160 @@
+package util;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Validates a JSON body as it streams in, holding at most one array element in memory at a time.
+ * Rules are registered against paths such as 'page', 'support.url' or 'data[*].id' ('[*]' = every array element),
+ * and whole-element rules against array paths such as 'data'.
+ * Design Note: memory stays constant regardless of payload size - failures are counted in full,
+ * but only the first {@link #MAX_RECORDED_FAILURES} messages are kept for reporting.
+ * A validator instance holds the results of one run - create one per response.
+ */
+public class JsonStreamValidator implements IResponseBodyConsumer {
+
+    public static final int MAX_RECORDED_FAILURES = 100;
+
+    private static final String ROOT = "";
+
+    private final Map<String, FieldRule> fieldRules = new LinkedHashMap<>();
+    private final Map<String, ElementRule> elementRules = new LinkedHashMap<>();
+
+    private final Set<String> fieldsSeen = new HashSet<>();
+    private final Map<String, Long> elementCounts = new HashMap<>();
+    private final List<String> failures = new ArrayList<>();
+    private long failureCount = 0;
+
+    /**
+     * Checks a single element - returns a failure description, or null when the element is valid.
+     */
+    @FunctionalInterface
+    public interface ElementRule {
+        String validate(long index, JsonElement element);
+    }
+
+    private record FieldRule(Predicate<JsonElement> check, String description) {
+    }
+
+    public JsonStreamValidator expectField(String path, JsonElement expectedValue) {
+        return expectField(path, expectedValue::equals, "equal to " + expectedValue);
+    }
+
+    public JsonStreamValidator expectField(String path, Predicate<JsonElement> check, String description) {
+        fieldRules.put(path, new FieldRule(check, description));
+        return this;
+    }
+
+    /**
+     * Each element of the array at 'arrayPath' is parsed on its own and passed to the rule, then discarded.
+     */
+    public JsonStreamValidator forEachElement(String arrayPath, ElementRule rule) {
+        elementRules.put(arrayPath, rule);
+        return this;
+    }
+
+    @Override
+    public void consume(InputStream body, Charset charset) throws IOException {
+        try (JsonReader reader = new JsonReader(new InputStreamReader(body, charset))) {
+            walkValue(reader, ROOT);
+        }
+        // Wildcard rules may legitimately match nothing (empty array) - only fixed paths must be present.
+        fieldRules.keySet().stream()
+                .filter(path -> !path.contains("[*]") && !fieldsSeen.contains(path))
+                .forEach(path -> recordFailure("Missing field - expected: " + path + " not found in actual body."));
+    }
+
+    private void walkValue(JsonReader reader, String path) throws IOException {
+        ElementRule elementRule = elementRules.get(path);
+        if (elementRule != null && reader.peek() == JsonToken.BEGIN_ARRAY) {
+            walkArray(reader, path, elementRule);
+            return;
+        }
+        FieldRule fieldRule = fieldRules.get(path);
+        if (fieldRule != null) {
+            fieldsSeen.add(path);
+            JsonElement actual = JsonParser.parseReader(reader);
+            if (!fieldRule.check().test(actual)) {
+                recordFailure(String.format("Value for '%s' is not %s \tactual value: %s", displayPath(reader, path), fieldRule.description(), actual));
+            }
+            return;
+        }
+        switch (reader.peek()) {
+            case BEGIN_OBJECT -> {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    walkValue(reader, path.isEmpty() ? name : path + "." + name);
+                }
+                reader.endObject();
+            }
+            case BEGIN_ARRAY -> walkArray(reader, path, null);
+            default -> reader.skipValue();
+        }
+    }
+
+    private void walkArray(JsonReader reader, String path, ElementRule elementRule) throws IOException {
+        String elementPath = path + "[*]";
+        long index = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (elementRule != null) {
+                String failure = elementRule.validate(index, JsonParser.parseReader(reader));
+                if (failure != null) {
+                    recordFailure(String.format("%s[%d]: %s", path, index, failure));
+                }
+            } else {
+                walkValue(reader, elementPath);
+            }
+            index++;
+        }
+        reader.endArray();
+        elementCounts.merge(path, index, Long::sum);
+    }
+
+    // The reader's own path (e.g. $.data[3].id) pinpoints the failing element rather than the wildcard rule path.
+    private String displayPath(JsonReader reader, String rulePath) {
+        return rulePath.contains("[*]") ? reader.getPreviousPath() : rulePath;
+    }
+
+    private void recordFailure(String message) {
+        failureCount++;
+        if (failures.size() < MAX_RECORDED_FAILURES) {
+            failures.add(message);
+        }
+    }
+
+    public boolean isValid() {
+        return failureCount == 0;
+    }
+
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    public List<String> getFailures() {
+        return failures;
+    }
+
+    /**
+     * Number of elements streamed through the array at 'arrayPath' (e.g. 'data'), summed over nested occurrences.
+     */
+    public long getElementCount(String arrayPath) {
+        return elementCounts.getOrDefault(arrayPath, 0L);
+    }
+}
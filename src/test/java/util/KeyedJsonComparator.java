@@ -0,0 +1,168 @@
+package util;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import net.javacrumbs.jsonunit.core.listener.Difference;
+import net.javacrumbs.jsonunit.core.listener.DifferenceListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Compares expected and actual JSON where arrays are matched by a declared key rather than by position or pairwise search.
+ * Keys are declared as paths such as 'data[*].id' - both sides of that array are hash-indexed on 'id' and diffed in linear time,
+ * so each user is reported as missing, extra or changed by its id ('data[id=3].first_name') instead of by shifting indexes.
+ * Arrays without a declared key are compared by position.
+ * Expected string values may use the JsonUnit markers '${json-unit.regex}<pattern>' and '${json-unit.ignore}'.
+ * Design Note: differences are reported through the JsonUnit {@link DifferenceListener} interface so existing listeners
+ * (e.g. {@link RecordingDifferenceListener}) and the suite's failure logging work unchanged.
+ * Instances are immutable once configured and safe to share between threads.
+ */
+public class KeyedJsonComparator {
+
+    public static final String REGEX_PLACEHOLDER = "${json-unit.regex}";
+    public static final String IGNORE_PLACEHOLDER = "${json-unit.ignore}";
+
+    private static final String ROOT = "";
+
+    // Array path (wildcards for nesting, e.g. 'data' or 'groups[*].members') -> key field path within each element.
+    private final Map<String, String[]> arrayKeys;
+    private final Map<String, Pattern> regexCache = new ConcurrentHashMap<>();
+
+    private KeyedJsonComparator(Map<String, String[]> arrayKeys) {
+        this.arrayKeys = arrayKeys;
+    }
+
+    /**
+     * @param keyPaths element key declarations such as 'data[*].id' or 'orders[*].customer.id'
+     */
+    public static KeyedJsonComparator byKeys(String... keyPaths) {
+        return new KeyedJsonComparator(JsonKeyPaths.parse(keyPaths));
+    }
+
+    /**
+     * Reports every difference to the listener and returns how many were found (0 means equal).
+     */
+    public int compare(JsonElement expected, JsonElement actual, DifferenceListener listener) {
+        int[] count = {0};
+        DifferenceListener counting = (difference, context) -> {
+            count[0]++;
+            listener.diff(difference, context);
+        };
+        compareValues(expected, actual, ROOT, ROOT, ROOT, counting);
+        return count[0];
+    }
+
+    private void compareValues(JsonElement expected, JsonElement actual, String rulePath,
+                               String expectedPath, String actualPath, DifferenceListener listener) {
+        if (expected.isJsonPrimitive() && expected.getAsJsonPrimitive().isString()) {
+            String expectedText = expected.getAsString();
+            if (expectedText.equals(IGNORE_PLACEHOLDER)) {
+                return;
+            }
+            if (expectedText.startsWith(REGEX_PLACEHOLDER)) {
+                if (!(actual.isJsonPrimitive() && regex(expectedText).matcher(actual.getAsString()).matches())) {
+                    report(Difference.Type.DIFFERENT, expectedPath, actualPath, expected, actual, listener);
+                }
+                return;
+            }
+        }
+        if (expected.isJsonObject() && actual.isJsonObject()) {
+            compareObjects(expected.getAsJsonObject(), actual.getAsJsonObject(), rulePath, expectedPath, actualPath, listener);
+        } else if (expected.isJsonArray() && actual.isJsonArray()) {
+            String[] keyField = arrayKeys.get(rulePath);
+            if (keyField != null) {
+                compareKeyedArrays(expected.getAsJsonArray(), actual.getAsJsonArray(), keyField, rulePath, expectedPath, actualPath, listener);
+            } else {
+                compareOrderedArrays(expected.getAsJsonArray(), actual.getAsJsonArray(), rulePath, expectedPath, actualPath, listener);
+            }
+        } else if (!expected.equals(actual)) {
+            report(Difference.Type.DIFFERENT, expectedPath, actualPath, expected, actual, listener);
+        }
+    }
+
+    private void compareObjects(JsonObject expected, JsonObject actual, String rulePath,
+                                String expectedPath, String actualPath, DifferenceListener listener) {
+        for (Map.Entry<String, JsonElement> entry : expected.entrySet()) {
+            String name = entry.getKey();
+            JsonElement actualValue = actual.get(name);
+            if (actualValue == null) {
+                report(Difference.Type.MISSING, JsonKeyPaths.child(expectedPath, name), JsonKeyPaths.child(actualPath, name), entry.getValue(), null, listener);
+            } else {
+                compareValues(entry.getValue(), actualValue, JsonKeyPaths.child(rulePath, name), JsonKeyPaths.child(expectedPath, name), JsonKeyPaths.child(actualPath, name), listener);
+            }
+        }
+        Set<String> expectedNames = expected.keySet();
+        for (Map.Entry<String, JsonElement> entry : actual.entrySet()) {
+            if (!expectedNames.contains(entry.getKey())) {
+                String name = entry.getKey();
+                report(Difference.Type.EXTRA, JsonKeyPaths.child(expectedPath, name), JsonKeyPaths.child(actualPath, name), null, entry.getValue(), listener);
+            }
+        }
+    }
+
+    private void compareKeyedArrays(JsonArray expected, JsonArray actual, String[] keyField, String rulePath,
+                                    String expectedPath, String actualPath, DifferenceListener listener) {
+        String elementRulePath = rulePath + "[*]";
+        String keyName = String.join(".", keyField);
+        Map<JsonElement, JsonElement> actualByKey = index(actual, keyField, actualPath, keyName, listener);
+        Map<JsonElement, JsonElement> expectedByKey = index(expected, keyField, expectedPath, keyName, listener);
+
+        for (Map.Entry<JsonElement, JsonElement> entry : expectedByKey.entrySet()) {
+            JsonElement actualElement = actualByKey.get(entry.getKey());
+            if (actualElement == null) {
+                report(Difference.Type.MISSING, JsonKeyPaths.keyed(expectedPath, keyName, entry.getKey()), JsonKeyPaths.keyed(actualPath, keyName, entry.getKey()), entry.getValue(), null, listener);
+            } else {
+                compareValues(entry.getValue(), actualElement, elementRulePath, JsonKeyPaths.keyed(expectedPath, keyName, entry.getKey()), JsonKeyPaths.keyed(actualPath, keyName, entry.getKey()), listener);
+            }
+        }
+        for (Map.Entry<JsonElement, JsonElement> entry : actualByKey.entrySet()) {
+            if (!expectedByKey.containsKey(entry.getKey())) {
+                report(Difference.Type.EXTRA, JsonKeyPaths.keyed(expectedPath, keyName, entry.getKey()), JsonKeyPaths.keyed(actualPath, keyName, entry.getKey()), null, entry.getValue(), listener);
+            }
+        }
+    }
+
+    // Elements without the key, or repeating a key already seen, cannot be matched - they are reported as extra by index.
+    private Map<JsonElement, JsonElement> index(JsonArray array, String[] keyField, String path, String keyName,
+                                                DifferenceListener listener) {
+        Map<JsonElement, JsonElement> byKey = new LinkedHashMap<>(array.size() * 4 / 3 + 1);
+        for (int i = 0; i < array.size(); i++) {
+            JsonElement element = array.get(i);
+            JsonElement key = JsonKeyPaths.extractKey(element, keyField);
+            if (key == null || byKey.putIfAbsent(key, element) != null) {
+                String indexPath = path + "[" + i + "]";
+                report(Difference.Type.EXTRA, indexPath, indexPath, key == null ? "element with key " + keyName : "unique " + keyName, element, listener);
+            }
+        }
+        return byKey;
+    }
+
+    private void compareOrderedArrays(JsonArray expected, JsonArray actual, String rulePath,
+                                      String expectedPath, String actualPath, DifferenceListener listener) {
+        String elementRulePath = rulePath + "[*]";
+        int common = Math.min(expected.size(), actual.size());
+        for (int i = 0; i < common; i++) {
+            compareValues(expected.get(i), actual.get(i), elementRulePath, expectedPath + "[" + i + "]", actualPath + "[" + i + "]", listener);
+        }
+        for (int i = common; i < expected.size(); i++) {
+            report(Difference.Type.MISSING, expectedPath + "[" + i + "]", actualPath + "[" + i + "]", expected.get(i), null, listener);
+        }
+        for (int i = common; i < actual.size(); i++) {
+            report(Difference.Type.EXTRA, expectedPath + "[" + i + "]", actualPath + "[" + i + "]", null, actual.get(i), listener);
+        }
+    }
+
+    private Pattern regex(String expectedText) {
+        return regexCache.computeIfAbsent(expectedText, text -> Pattern.compile(text.substring(REGEX_PLACEHOLDER.length())));
+    }
+
+    private static void report(Difference.Type type, String expectedPath, String actualPath, Object expected, Object actual,
+                               DifferenceListener listener) {
+        JsonDifference.report(type, expectedPath, actualPath, expected, actual, listener);
+    }
+}
@@ -0,0 +1,46 @@
+package util;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Fluent latency budget assertions for a response, used alongside the header and body checks, e.g.
+ * assertLatency(serviceResponse).ttfbBelow(Duration.ofMillis(500)).totalBelow(Duration.ofSeconds(1));
+ */
+public class LatencyAssert {
+
+    private final RequestTimings timings;
+
+    private LatencyAssert(RequestTimings timings) {
+        this.timings = timings;
+    }
+
+    public static LatencyAssert assertLatency(IServiceResponse response) {
+        return new LatencyAssert(response.getTimings());
+    }
+
+    public LatencyAssert connectBelow(Duration budget) {
+        return check("Connect time", timings.connect(), budget);
+    }
+
+    public LatencyAssert tlsHandshakeBelow(Duration budget) {
+        return check("TLS handshake time", timings.tlsHandshake(), budget);
+    }
+
+    public LatencyAssert ttfbBelow(Duration budget) {
+        return check("Time to first byte", timings.timeToFirstByte(), budget);
+    }
+
+    public LatencyAssert totalBelow(Duration budget) {
+        return check("Total response time", timings.total(), budget);
+    }
+
+    private LatencyAssert check(String measure, Duration actual, Duration budget) {
+        if (actual.compareTo(budget) >= 0) {
+            fail(String.format("FAILURE: %s over budget - expected below %d ms, actual %.3f ms (%s)",
+                    measure, budget.toMillis(), actual.toNanos() / 1_000_000.0, timings));
+        }
+        return this;
+    }
+}
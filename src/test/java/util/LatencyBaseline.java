@@ -0,0 +1,180 @@
+package util;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks request latency history across runs, so functional suites double as a cheap performance trend check.
+ * With -Dbaseline.enabled=true every network response made through {@link ServiceCaller} by the tests of a suite
+ * registered with {@link LatencyBaselineExtension} is recorded against its key -
+ * test scenario (each dynamic test case has its own), api mode, method and endpoint (host, path and query). At the end of a suite (see {@link LatencyBaselineExtension})
+ * the run's percentiles are compared with the rolling baseline of the last -Dbaseline.window runs in the
+ * {@link LatencyBaselineStore} (-Dbaseline.file), then appended to it.
+ * <p>
+ * A percentile regresses when it exceeds the baseline median by more than all of: 3 scaled median absolute deviations
+ * of the history (the run to run noise), -Dbaseline.tolerancePercent of the median, and -Dbaseline.minDeltaMillis.
+ * Keys with fewer than -Dbaseline.minRuns stored runs are recorded but not judged. p90 and p99 are only judged once
+ * both the run and the baseline have enough requests (10 / 100) for them to differ from the maximum.
+ * Design Note: cache hits never reach the network layer, so they are not recorded - the baseline is of real round trips.
+ */
+public class LatencyBaseline {
+
+    public static final String ENABLED_KEY = "baseline.enabled";
+    public static final String FILE_KEY = "baseline.file";
+    public static final String MODE_KEY = "baseline.mode";
+    public static final String WINDOW_KEY = "baseline.window";
+    public static final String MIN_RUNS_KEY = "baseline.minRuns";
+    public static final String TOLERANCE_PERCENT_KEY = "baseline.tolerancePercent";
+    public static final String MIN_DELTA_MS_KEY = "baseline.minDeltaMillis";
+
+    private static final double MAD_TO_STANDARD_DEVIATION = 1.4826;
+
+    private static final boolean enabled = FrameworkConfig.getBoolean(ENABLED_KEY, false);
+    private static final Map<String, Samples> samples = new ConcurrentHashMap<>();
+    // Scenario prefixes of the suites running with LatencyBaselineExtension - nothing else is ever checked, so nothing else is kept.
+    private static final Set<String> trackedPrefixes = ConcurrentHashMap.newKeySet();
+    private static LatencyBaselineStore store;
+
+    /**
+     * A percentile of one key that is significantly slower than its baseline.
+     */
+    public record Regression(String key, int percentile, long currentMicros, long baselineMicros, long thresholdMicros) {
+        @Override
+        public String toString() {
+            return String.format("%s - p%d %.3f ms against baseline %.3f ms (threshold %.3f ms)",
+                    key, percentile, currentMicros / 1000.0, baselineMicros / 1000.0, thresholdMicros / 1000.0);
+        }
+    }
+
+    private static class Samples {
+        private final Histogram latencies = new ConcurrentHistogram(3);
+        private final LongAdder bytes = new LongAdder();
+    }
+
+    private LatencyBaseline() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static boolean failOnRegression() {
+        return FrameworkConfig.getString(MODE_KEY, "warn").equalsIgnoreCase("fail");
+    }
+
+    public static synchronized LatencyBaselineStore getStore() {
+        if (store == null) {
+            store = new LatencyBaselineStore(Paths.get(FrameworkConfig.getString(FILE_KEY, "perf-history/latency-baseline.bin")));
+        }
+        return store;
+    }
+
+    /**
+     * Starts keeping the requests of scenarios starting with the prefix, until {@link #checkAndStore(String)} for it.
+     */
+    public static void track(String scenarioPrefix) {
+        trackedPrefixes.add(scenarioPrefix);
+    }
+
+    /**
+     * Records one completed request against the scenario (test) running on the calling thread - only while that
+     * scenario's suite is tracked, so requests outside of any test, or of suites without the extension, are not kept.
+     */
+    public static void record(String method, URI uri, RequestTimings timings) {
+        if (!enabled) {
+            return;
+        }
+        String scenario = LogWrapper.getTestContext();
+        if (scenario == null || trackedPrefixes.stream().noneMatch(scenario::startsWith)) {
+            return;
+        }
+        String key = scenario + " | " + ApiMode.current().name().toLowerCase() + " "
+                + method + " " + uri.getHost() + uri.getPath() + (uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery());
+        Samples keySamples = samples.computeIfAbsent(key, k -> new Samples());
+        keySamples.latencies.recordValue(Math.max(TimeUnit.NANOSECONDS.toMicros(timings.total().toNanos()), 0));
+        keySamples.bytes.add(timings.responseBytes());
+    }
+
+    /**
+     * Compares the statistics recorded for scenarios starting with the prefix (e.g. 'UsersApiTestSuite > ') against
+     * their baselines, appends them to the store, and returns the regressions found. The recorded samples are cleared,
+     * and the prefix is no longer tracked.
+     */
+    public static List<Regression> checkAndStore(String scenarioPrefix) throws IOException {
+        trackedPrefixes.remove(scenarioPrefix);
+        List<LatencyBaselineStore.RunStats> runStats = new ArrayList<>();
+        long runMillis = System.currentTimeMillis();
+        Iterator<Map.Entry<String, Samples>> entries = samples.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<String, Samples> entry = entries.next();
+            if (!entry.getKey().startsWith(scenarioPrefix)) {
+                continue;
+            }
+            entries.remove();
+            Histogram latencies = entry.getValue().latencies;
+            long count = latencies.getTotalCount();
+            if (count > 0) {
+                runStats.add(new LatencyBaselineStore.RunStats(entry.getKey(), runMillis, count,
+                        latencies.getValueAtPercentile(50), latencies.getValueAtPercentile(90), latencies.getValueAtPercentile(99),
+                        latencies.getMaxValue(), entry.getValue().bytes.sum() / count));
+            }
+        }
+        if (runStats.isEmpty()) {
+            return List.of();
+        }
+
+        LatencyBaselineStore baselineStore = getStore();
+        Map<String, List<LatencyBaselineStore.RunStats>> history = baselineStore.latestByKey(FrameworkConfig.getInt(WINDOW_KEY, 10));
+        List<Regression> regressions = new ArrayList<>();
+        for (LatencyBaselineStore.RunStats current : runStats) {
+            regressions.addAll(compare(current, history.getOrDefault(current.key(), List.of())));
+        }
+        baselineStore.append(runStats);
+        return regressions;
+    }
+
+    static List<Regression> compare(LatencyBaselineStore.RunStats current, List<LatencyBaselineStore.RunStats> history) {
+        if (history.size() < FrameworkConfig.getInt(MIN_RUNS_KEY, 3)) {
+            return List.of();
+        }
+        long minHistoryCount = history.stream().mapToLong(LatencyBaselineStore.RunStats::count).min().orElse(0);
+        long sampleCount = Math.min(current.count(), minHistoryCount);
+        List<Regression> regressions = new ArrayList<>();
+        for (int percentile : new int[]{50, 90, 99}) {
+            if ((percentile == 90 && sampleCount < 10) || (percentile == 99 && sampleCount < 100)) {
+                continue;
+            }
+            long[] values = history.stream().mapToLong(stats -> stats.percentileMicros(percentile)).toArray();
+            long median = median(values);
+            long mad = median(Arrays.stream(values).map(value -> Math.abs(value - median)).toArray());
+            long allowance = Math.max(Math.round(3 * MAD_TO_STANDARD_DEVIATION * mad), Math.max(
+                    Math.round(median * FrameworkConfig.getDouble(TOLERANCE_PERCENT_KEY, 20) / 100),
+                    FrameworkConfig.getLong(MIN_DELTA_MS_KEY, 5) * 1000));
+            long currentValue = current.percentileMicros(percentile);
+            if (currentValue > median + allowance) {
+                regressions.add(new Regression(current.key(), percentile, currentValue, median, median + allowance));
+            }
+        }
+        return regressions;
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+}
@@ -0,0 +1,60 @@
+package util;
+
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.fail;
+import static util.LogWrapper.logError;
+import static util.LogWrapper.logInfo;
+
+/**
+ * At the end of a suite, compares the suite's request latencies with their stored baseline and adds this run to it
+ * (see {@link LatencyBaseline}) - only when -Dbaseline.enabled=true.
+ * Regressions are logged, and with -Dbaseline.mode=fail also fail the suite.
+ * Note: requests are only recorded while a suite with this extension is running - see {@link LatencyBaseline#track(String)}.
+ * Register on a suite with @ExtendWith(LatencyBaselineExtension.class), together with {@link TestLogContextExtension},
+ * which supplies the scenario names the latencies are keyed by.
+ */
+public class LatencyBaselineExtension implements BeforeAllCallback, AfterAllCallback {
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        if (LatencyBaseline.isEnabled()) {
+            LatencyBaseline.track(scenarioPrefix(context));
+        }
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) {
+        if (!LatencyBaseline.isEnabled()) {
+            return;
+        }
+        List<LatencyBaseline.Regression> regressions;
+        try {
+            regressions = LatencyBaseline.checkAndStore(scenarioPrefix(context));
+        } catch (IOException e) {
+            // The history is a diagnostic aid - an unreadable store must not fail the functional checks.
+            logError("Could not update latency baseline " + LatencyBaseline.getStore().getFile() + ": " + e.getMessage());
+            return;
+        }
+        if (regressions.isEmpty()) {
+            logInfo("No latency regressions against baseline " + LatencyBaseline.getStore().getFile());
+            return;
+        }
+        String report = regressions.stream().map(LatencyBaseline.Regression::toString).collect(Collectors.joining("\n"));
+        if (LatencyBaseline.failOnRegression()) {
+            fail("FAILURE: Latency regressions against baseline:\n" + report);
+        }
+        logError("WARNING: Latency regressions against baseline:\n" + report);
+    }
+
+    // The scenario names of the suite's tests, as set by TestLogContextExtension, all start with this.
+    private static String scenarioPrefix(ExtensionContext context) {
+        return context.getRequiredTestClass().getSimpleName() + " > ";
+    }
+}
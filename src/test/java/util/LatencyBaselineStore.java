@@ -0,0 +1,204 @@
+package util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static util.LogWrapper.logError;
+
+/**
+ * Append-only binary history of per-endpoint, per-scenario latency statistics - one record per key per run.
+ * Record layout (big endian): int magic, short key length, key (UTF-8), long run time (epoch millis), long request count,
+ * long p50 / p90 / p99 / max (microseconds), long mean response bytes.
+ * Design Note: records are only ever appended, so a run that dies mid-write can at worst leave a truncated last record -
+ * reading stops at it, and the next append writes over it. The file is read through a memory map - a whole history is scanned without copying it onto the heap.
+ * Instances are safe for use by multiple threads of one JVM (appends are synchronised), not by concurrent JVMs.
+ */
+public class LatencyBaselineStore {
+
+    private static final int MAGIC = 0x4C415431; // 'LAT1'
+
+    private final Path file;
+
+    /**
+     * Statistics of one key (endpoint and scenario) for one run.
+     */
+    public record RunStats(String key, long runMillis, long count, long p50Micros, long p90Micros, long p99Micros,
+                           long maxMicros, long meanBytes) {
+
+        public long percentileMicros(int percentile) {
+            return switch (percentile) {
+                case 50 -> p50Micros;
+                case 90 -> p90Micros;
+                case 99 -> p99Micros;
+                default -> throw new IllegalArgumentException("Only p50, p90 and p99 are stored, got: p" + percentile);
+            };
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s - count: %d, p50: %.3f ms, p90: %.3f ms, p99: %.3f ms, max: %.3f ms, mean bytes: %d",
+                    key, count, p50Micros / 1000.0, p90Micros / 1000.0, p99Micros / 1000.0, maxMicros / 1000.0, meanBytes);
+        }
+    }
+
+    public LatencyBaselineStore(Path file) {
+        this.file = file;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public synchronized void append(List<RunStats> runStats) throws IOException {
+        if (runStats.isEmpty()) {
+            return;
+        }
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        List<ByteBuffer> records = new ArrayList<>(runStats.size());
+        for (RunStats stats : runStats) {
+            byte[] key = stats.key().getBytes(StandardCharsets.UTF_8);
+            if (key.length > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("Baseline key too long: " + stats.key());
+            }
+            ByteBuffer record = ByteBuffer.allocate(4 + 2 + key.length + 8 * 7);
+            record.putInt(MAGIC).putShort((short) key.length).put(key)
+                    .putLong(stats.runMillis()).putLong(stats.count())
+                    .putLong(stats.p50Micros()).putLong(stats.p90Micros()).putLong(stats.p99Micros()).putLong(stats.maxMicros())
+                    .putLong(stats.meanBytes())
+                    .flip();
+            records.add(record);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Written over any record cut short by an earlier run - otherwise every later record would follow a broken one.
+            long end = channel.size() == 0 ? 0 : scan(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), null);
+            channel.position(end);
+            for (ByteBuffer record : records) {
+                while (record.hasRemaining()) {
+                    channel.write(record);
+                }
+            }
+            if (channel.size() > channel.position()) {
+                channel.truncate(channel.position());
+            }
+        }
+    }
+
+    /**
+     * Every stored record, oldest first.
+     */
+    public synchronized List<RunStats> readAll() throws IOException {
+        List<RunStats> all = new ArrayList<>();
+        if (!Files.exists(file)) {
+            return all;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > 0) {
+                scan(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), all);
+            }
+        }
+        return all;
+    }
+
+    /* Decodes every complete record into 'into' (when not null) and returns the offset just past the last one.
+       A record counts as complete when the file ends after it, the next record's magic follows it, or no magic starts
+       within it - otherwise it is a record cut short with more appended after it (by a version that appended blindly),
+       skipped up to the next magic. Bytes following a complete record that are not a record are skipped the same way.
+     */
+    private long scan(ByteBuffer buffer, List<RunStats> into) {
+        int limit = buffer.limit();
+        int position = 0;
+        long end = 0;
+        while (position + 6 <= limit) {
+            int recordEnd = position + 6 + (buffer.getShort(position + 4) & 0xFFFF) + 8 * 7;
+            boolean complete = buffer.getInt(position) == MAGIC && recordEnd <= limit
+                    && (recordEnd + 4 > limit || buffer.getInt(recordEnd) == MAGIC || !hasMagic(buffer, position + 4, recordEnd));
+            if (!complete) {
+                int next = nextMagic(buffer, position + 1);
+                if (next < 0) {
+                    break; // truncated last record
+                }
+                if (into != null) {
+                    logError("Skipped " + (next - position) + " bytes of a broken record in latency baseline file " + file + " at byte " + position);
+                }
+                position = next;
+                continue;
+            }
+            if (into != null) {
+                byte[] key = new byte[recordEnd - position - 6 - 8 * 7];
+                buffer.get(position + 6, key);
+                int stats = position + 6 + key.length;
+                into.add(new RunStats(new String(key, StandardCharsets.UTF_8), buffer.getLong(stats), buffer.getLong(stats + 8),
+                        buffer.getLong(stats + 16), buffer.getLong(stats + 24), buffer.getLong(stats + 32),
+                        buffer.getLong(stats + 40), buffer.getLong(stats + 48)));
+            }
+            position = recordEnd;
+            end = recordEnd;
+        }
+        return end;
+    }
+
+    // Offset of the next magic at or after 'from', or -1.
+    private static int nextMagic(ByteBuffer buffer, int from) {
+        for (int i = from; i + 4 <= buffer.limit(); i++) {
+            if (buffer.getInt(i) == MAGIC) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Whether a magic starts at or after 'from' and before 'to'.
+    private static boolean hasMagic(ByteBuffer buffer, int from, int to) {
+        int next = nextMagic(buffer, from);
+        return next >= 0 && next < to;
+    }
+
+    public Set<String> keys() throws IOException {
+        Set<String> keys = new TreeSet<>();
+        readAll().forEach(stats -> keys.add(stats.key()));
+        return keys;
+    }
+
+    /**
+     * The most recent runs of a key, oldest first - at most 'window' of them.
+     */
+    public List<RunStats> history(String key, int window) throws IOException {
+        return latestByKey(window).getOrDefault(key, List.of());
+    }
+
+    /**
+     * The most recent runs of every key, oldest first - at most 'window' per key. One scan of the file.
+     */
+    public Map<String, List<RunStats>> latestByKey(int window) throws IOException {
+        Map<String, List<RunStats>> byKey = new LinkedHashMap<>();
+        for (RunStats stats : readAll()) {
+            List<RunStats> history = byKey.computeIfAbsent(stats.key(), key -> new ArrayList<>());
+            history.add(stats);
+            if (history.size() > window) {
+                history.remove(0);
+            }
+        }
+        return byKey;
+    }
+
+    /**
+     * One line per key - its latest run and how many runs are stored.
+     */
+    public String report() throws IOException {
+        StringBuilder report = new StringBuilder("Latency baseline " + file + ":\n");
+        latestByKey(Integer.MAX_VALUE).forEach((key, history) -> report.append(history.get(history.size() - 1))
+                .append(" (").append(history.size()).append(" runs)\n"));
+        return report.toString();
+    }
+}
@@ -0,0 +1,197 @@
+package util;
+
+import org.HdrHistogram.Histogram;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static util.LogWrapper.logInfo;
+
+/**
+ * Drives an existing API scenario (request + validations) from N concurrent workers for a fixed duration or request count,
+ * recording latency into an HdrHistogram and counting failures by type.
+ * Design Note: workers run on virtual threads when the runtime provides them (JDK 21+), otherwise on platform threads,
+ * so the same load test can run unchanged on the JDK 17 baseline of this project.
+ */
+public class LoadGenerator {
+
+    /**
+     * One unit of work - typically a service call followed by the usual status / header / body checks.
+     * Any exception or assertion error thrown counts as a failed request.
+     */
+    @FunctionalInterface
+    public interface LoadScenario {
+        void execute() throws Exception;
+    }
+
+    // Highest latency that can be recorded - anything slower is clamped rather than dropped.
+    private static final long MAX_TRACKABLE_NANOS = Duration.ofMinutes(10).toNanos();
+
+    private final LoadScenario scenario;
+    private final int workers;
+    private final Duration duration;
+    private final long requestCount;
+
+    private LoadGenerator(Builder builder) {
+        this.scenario = builder.scenario;
+        this.workers = builder.workers;
+        this.duration = builder.duration;
+        this.requestCount = builder.requestCount;
+    }
+
+    public static Builder builder(LoadScenario scenario) {
+        return new Builder(scenario);
+    }
+
+    public LoadReport run() throws InterruptedException {
+        logInfo(String.format("Starting load run - workers: %d, %s, thread type: %s", workers,
+                duration != null ? "duration: " + duration : "requests: " + requestCount,
+                isVirtualThreadAvailable() ? "virtual" : "platform"));
+
+        ThreadFactory threadFactory = workerThreadFactory();
+        CountDownLatch startGate = new CountDownLatch(1);
+        AtomicLong remaining = new AtomicLong(duration != null ? Long.MAX_VALUE : requestCount);
+        Map<String, LongAdder> errorsByType = new ConcurrentHashMap<>();
+        List<Histogram> workerHistograms = new ArrayList<>(workers);
+        List<Thread> threads = new ArrayList<>(workers);
+
+        for (int i = 0; i < workers; i++) {
+            // Histograms are not thread safe - each worker records into its own and they are merged at the end.
+            Histogram histogram = new Histogram(MAX_TRACKABLE_NANOS, 3);
+            workerHistograms.add(histogram);
+            // Workers log, save artifacts and record latencies under the test that started the run.
+            threads.add(threadFactory.newThread(LogWrapper.withTestContext(() -> {
+                try {
+                    startGate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                runWorker(histogram, remaining, errorsByType);
+            })));
+        }
+
+        threads.forEach(Thread::start);
+        long startNanos = System.nanoTime();
+        long deadlineNanos = duration != null ? startNanos + duration.toNanos() : Long.MAX_VALUE;
+        startGate.countDown();
+
+        if (duration != null) {
+            try {
+                long sleepMillis = Duration.ofNanos(deadlineNanos - System.nanoTime()).toMillis();
+                if (sleepMillis > 0) {
+                    Thread.sleep(sleepMillis);
+                }
+            } finally {
+                // Stop issuing new requests - in-flight ones complete and are still counted.
+                // Note: also on interrupt - otherwise the workers would keep counting down from Long.MAX_VALUE.
+                remaining.set(0);
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - startNanos);
+
+        Histogram merged = new Histogram(MAX_TRACKABLE_NANOS, 3);
+        workerHistograms.forEach(merged::add);
+        Map<String, Long> errors = new ConcurrentHashMap<>();
+        errorsByType.forEach((type, count) -> errors.put(type, count.sum()));
+
+        LoadReport report = new LoadReport(workers, elapsed, merged, errors);
+        logInfo(report.toString());
+        return report;
+    }
+
+    private void runWorker(Histogram histogram, AtomicLong remaining, Map<String, LongAdder> errorsByType) {
+        while (remaining.getAndDecrement() > 0) {
+            long start = System.nanoTime();
+            try {
+                scenario.execute();
+                histogram.recordValue(Math.min(System.nanoTime() - start, MAX_TRACKABLE_NANOS));
+            } catch (Throwable t) {
+                // Includes AssertionError from the validations - a wrong answer is as much a failure as a timeout.
+                errorsByType.computeIfAbsent(t.getClass().getSimpleName(), key -> new LongAdder()).increment();
+                if (t instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    public static boolean isVirtualThreadAvailable() {
+        return virtualThreadFactory() != null;
+    }
+
+    private static ThreadFactory workerThreadFactory() {
+        ThreadFactory virtual = virtualThreadFactory();
+        if (virtual != null) {
+            return virtual;
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "load-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // Resolved reflectively - Thread.ofVirtual() does not exist at compile time on JDK 17.
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            Object builder = ofVirtual.invoke(null);
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    public static class Builder {
+        private final LoadScenario scenario;
+        private int workers = 1;
+        private Duration duration;
+        private long requestCount = 1;
+
+        private Builder(LoadScenario scenario) {
+            this.scenario = scenario;
+        }
+
+        public Builder workers(int workers) {
+            if (workers < 1) {
+                throw new IllegalArgumentException("Load run needs at least one worker, got: " + workers);
+            }
+            this.workers = workers;
+            return this;
+        }
+
+        /** Run for a fixed wall-clock time - replaces any request count. */
+        public Builder duration(Duration duration) {
+            this.duration = duration;
+            this.requestCount = 0;
+            return this;
+        }
+
+        /** Run a fixed number of requests shared across all workers - replaces any duration. */
+        public Builder requestCount(long requestCount) {
+            this.requestCount = requestCount;
+            this.duration = null;
+            return this;
+        }
+
+        public LoadGenerator build() {
+            return new LoadGenerator(this);
+        }
+    }
+}
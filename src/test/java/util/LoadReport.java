@@ -0,0 +1,75 @@
+package util;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Outcome of a {@link LoadGenerator} run - throughput, latency percentiles of successful requests and error rate.
+ * Latencies are recorded in nanoseconds and reported in milliseconds.
+ */
+public class LoadReport {
+
+    private final int workers;
+    private final Duration elapsed;
+    private final Histogram latencies;
+    private final Map<String, Long> errorsByType;
+    private final long errorCount;
+
+    LoadReport(int workers, Duration elapsed, Histogram latencies, Map<String, Long> errorsByType) {
+        this.workers = workers;
+        this.elapsed = elapsed;
+        this.latencies = latencies;
+        this.errorsByType = Collections.unmodifiableMap(errorsByType);
+        this.errorCount = errorsByType.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    public long getTotalRequests() {
+        return latencies.getTotalCount() + errorCount;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public double getErrorRate() {
+        long total = getTotalRequests();
+        return total == 0 ? 0 : (double) errorCount / total;
+    }
+
+    public Map<String, Long> getErrorsByType() {
+        return errorsByType;
+    }
+
+    public double getThroughputPerSecond() {
+        double seconds = elapsed.toNanos() / 1_000_000_000.0;
+        return seconds == 0 ? 0 : getTotalRequests() / seconds;
+    }
+
+    public double getPercentileMillis(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1_000_000.0;
+    }
+
+    public Histogram getLatencyHistogram() {
+        return latencies;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Load run complete - workers: %d, requests: %d, elapsed: %d ms, throughput: %.1f req/s, "
+                        + "p50: %.2f ms, p99: %.2f ms, p99.9: %.2f ms, max: %.2f ms, errors: %d (%.2f%%) %s",
+                workers, getTotalRequests(), elapsed.toMillis(), getThroughputPerSecond(),
+                getPercentileMillis(50), getPercentileMillis(99), getPercentileMillis(99.9),
+                latencies.getMaxValue() / 1_000_000.0, errorCount, getErrorRate() * 100, errorsByType);
+    }
+}
@@ -1,27 +1,214 @@
 package util;
 
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+/**
+ * Test logging to both the console and java.util.logging.
+ * Design Note: messages are handed to a single background writer through a bounded queue (-Dlog.async, default true),
+ * so a test thread never waits on console or handler I/O - under load runs synchronous logging of large bodies
+ * throttled throughput. Use the Supplier overloads for expensive messages, they are only built when the level is enabled.
+ * Levels: -Dlog.level=DEBUG|INFO|ERROR (default INFO). Queue size: -Dlog.queueSize (default 8192) - when full the caller
+ * waits, or with -Dlog.dropWhenFull=true the message is dropped and counted instead.
+ */
 public class LogWrapper {
 
+    public static final String LOG_LEVEL_KEY = "log.level";
+    public static final String ASYNC_KEY = "log.async";
+    public static final String QUEUE_SIZE_KEY = "log.queueSize";
+    public static final String DROP_WHEN_FULL_KEY = "log.dropWhenFull";
+
     private static final Logger logger = Logger.getLogger("global");
 
+    private static final Level level = parseLevel(FrameworkConfig.getString(LOG_LEVEL_KEY, "INFO"));
+    private static final boolean dropWhenFull = FrameworkConfig.getBoolean(DROP_WHEN_FULL_KEY, false);
+    private static final BlockingQueue<LogEvent> queue = FrameworkConfig.getBoolean(ASYNC_KEY, true)
+            ? new ArrayBlockingQueue<>(FrameworkConfig.getInt(QUEUE_SIZE_KEY, 8192)) : null;
+    private static final AtomicLong droppedMessages = new AtomicLong();
+    // Queued but not yet written - the queue alone cannot tell whether the last taken message has been written.
+    private static final PendingTasks pendingMessages = new PendingTasks();
+
+    /* Name of the test running on the current thread, prefixed to every message so that output from
+       tests running in parallel can be told apart.
+       Note: deliberately not inherited - pooled threads are created by whichever test needs one first and would keep
+       that test's name for life. Work handed to other threads carries the context explicitly (see withTestContext).
+     */
+    private static final ThreadLocal<String> testContext = new ThreadLocal<>();
+
+    private record LogEvent(Level level, String message) {
+    }
+
+    static {
+        if (queue != null) {
+            Thread writer = new Thread(LogWrapper::drainQueue, "async-log-writer");
+            writer.setDaemon(true);
+            writer.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(LogWrapper::flush, "async-log-flush"));
+        }
+    }
+
     // Useful when we want to extend the logger with multiple outputs (handlers) eg .txt files.
     public static Logger getLogger(){
         return logger;
     }
 
+    public static void setTestContext(String testName){
+        testContext.set(testName);
+    }
+
+    public static void clearTestContext(){
+        testContext.remove();
+    }
+
+    // Null when not called from within a test.
+    public static String getTestContext(){
+        return testContext.get();
+    }
+
+    /**
+     * Runs tasks on the delegate under the calling thread's test context - other threads have none of their own.
+     */
+    public static Executor withTestContext(Executor delegate){
+        String context = testContext.get();
+        return task -> delegate.execute(withContext(context, task));
+    }
+
+    /**
+     * The task, run under the calling thread's test context on whichever thread runs it.
+     */
+    public static Runnable withTestContext(Runnable task){
+        return withContext(testContext.get(), task);
+    }
+
+    private static Runnable withContext(String context, Runnable task){
+        return () -> {
+            String previous = testContext.get();
+            testContext.set(context);
+            try {
+                task.run();
+            } finally {
+                testContext.set(previous);
+            }
+        };
+    }
+
+    public static boolean isDebugEnabled(){
+        return level.intValue() <= Level.FINE.intValue();
+    }
+
+    public static boolean isInfoEnabled(){
+        return level.intValue() <= Level.INFO.intValue();
+    }
+
+    public static void logDebug(Supplier<String> message){
+        if (isDebugEnabled()) {
+            log(Level.FINE, message.get());
+        }
+    }
 
     public static void logInfo(String message){
-        // Print to IDE console, in case the IDE in use does not receive the test logger output.
-        System.out.println(message);
-        logger.log(Level.INFO, message);
+        if (isInfoEnabled()) {
+            log(Level.INFO, message);
+        }
+    }
+
+    public static void logInfo(Supplier<String> message){
+        if (isInfoEnabled()) {
+            log(Level.INFO, message.get());
+        }
     }
 
     public static void logError(String message){
-        System.err.println(message);
-        logger.log(Level.SEVERE, message);
+        log(Level.SEVERE, message);
+    }
+
+    public static void logError(Supplier<String> message){
+        log(Level.SEVERE, message.get());
+    }
+
+    /**
+     * Blocks (up to 5 seconds) until every queued message has been written - e.g. before inspecting console output.
+     */
+    public static void flush(){
+        if (queue == null) {
+            return;
+        }
+        pendingMessages.awaitNone(Duration.ofSeconds(5));
+        if (droppedMessages.get() > 0) {
+            System.err.println("LogWrapper dropped " + droppedMessages.get() + " messages - log queue was full.");
+        }
     }
-}
 
+    private static void log(Level messageLevel, String message){
+        // Context is resolved on the calling thread - the writer thread has no test context of its own.
+        LogEvent event = new LogEvent(messageLevel, withContext(message));
+        if (queue == null) {
+            write(event);
+            return;
+        }
+        pendingMessages.added();
+        if (dropWhenFull) {
+            if (!queue.offer(event)) {
+                pendingMessages.finished();
+                droppedMessages.incrementAndGet();
+            }
+        } else {
+            try {
+                queue.put(event);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                pendingMessages.finished();
+                write(event);
+            }
+        }
+    }
+
+    private static void drainQueue(){
+        while (true) {
+            LogEvent event;
+            try {
+                event = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                write(event);
+            } catch (RuntimeException e) {
+                // A failing handler must not stop all further logging.
+                System.err.println("LogWrapper failed to write a message: " + e);
+            } finally {
+                pendingMessages.finished();
+            }
+        }
+    }
+
+    private static void write(LogEvent event){
+        if (event.level() == Level.SEVERE) {
+            System.err.println(event.message());
+        } else {
+            // Print to IDE console, in case the IDE in use does not receive the test logger output.
+            System.out.println(event.message());
+        }
+        // Note: JUL drops FINE by default - debug output only reaches handlers configured for it.
+        logger.log(event.level(), event.message());
+    }
+
+    private static String withContext(String message){
+        String context = testContext.get();
+        return context == null ? message : "[" + context + "] " + message;
+    }
+
+    private static Level parseLevel(String name){
+        return switch (name.toUpperCase()) {
+            case "DEBUG" -> Level.FINE;
+            case "ERROR" -> Level.SEVERE;
+            default -> Level.INFO;
+        };
+    }
+}
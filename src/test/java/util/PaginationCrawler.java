@@ -0,0 +1,237 @@
+package util;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+import org.apache.http.client.utils.URIBuilder;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+import static util.LogWrapper.logInfo;
+
+/**
+ * Walks every page of a paginated api (page / total_pages / total / data, as in the users api) and validates each record.
+ * The first page is fetched from the base uri to discover 'total_pages', then the remaining pages are fetched concurrently
+ * with bounded parallelism. Each page body is streamed through a {@link JsonStreamValidator}, so only the record keys
+ * (for the cross-page duplicate check) are kept in memory - never the pages themselves.
+ * Cross-page checks: every page reports its own page number, keys are unique across pages, and the record count matches 'total'.
+ */
+public class PaginationCrawler {
+
+    private final String baseUri;
+    private final String pageParameter;
+    private final String recordsPath;
+    private final String recordKey;
+    private final int parallelism;
+    private final JsonStreamValidator.ElementRule recordRule;
+
+    private PaginationCrawler(Builder builder) {
+        this.baseUri = builder.baseUri;
+        this.pageParameter = builder.pageParameter;
+        this.recordsPath = builder.recordsPath;
+        this.recordKey = builder.recordKey;
+        this.parallelism = builder.parallelism;
+        this.recordRule = builder.recordRule;
+    }
+
+    public static Builder builder(String baseUri) {
+        return new Builder(baseUri);
+    }
+
+    public CrawlReport crawl() throws InterruptedException {
+        CrawlReport report = new CrawlReport();
+        Set<String> seenKeys = ConcurrentHashMap.newKeySet();
+
+        AtomicReference<JsonElement> totalPages = new AtomicReference<>();
+        AtomicReference<JsonElement> total = new AtomicReference<>();
+        JsonStreamValidator firstPage = pageValidator(1, seenKeys, report)
+                .expectField("total_pages", captureNumber(totalPages), "a number")
+                .expectField("total", captureNumber(total), "a number");
+        fetchPage(baseUri, 1, firstPage, report);
+        if (totalPages.get() == null) {
+            report.addFailure("Page 1: could not read total_pages - remaining pages not fetched.");
+            return report;
+        }
+
+        int pageCount = totalPages.get().getAsInt();
+        logInfo(String.format("Crawling %d pages of %s with parallelism %d", pageCount, baseUri, parallelism));
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<?>> pages = new ArrayList<>(Math.max(pageCount - 1, 0));
+            for (int page = 2; page <= pageCount; page++) {
+                int pageNumber = page;
+                // Pool threads have no test context of their own - the page's log lines and artifacts belong to this test.
+                pages.add(executor.submit(LogWrapper.withTestContext(
+                        () -> fetchPage(pageUri(pageNumber), pageNumber, pageValidator(pageNumber, seenKeys, report), report))));
+            }
+            for (Future<?> page : pages) {
+                page.get();
+            }
+        } catch (ExecutionException e) {
+            // fetchPage records its own failures - anything reaching here is unexpected.
+            throw new IllegalStateException("Pagination crawl failed unexpectedly", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (total.get() != null && total.get().getAsLong() != report.getRecordCount()) {
+            report.addFailure(String.format("Record count across all pages (%d) does not match declared total (%s)",
+                    report.getRecordCount(), total.get()));
+        }
+        if (report.getPagesFetched() != pageCount) {
+            report.addFailure(String.format("Fetched %d pages but total_pages declared %d", report.getPagesFetched(), pageCount));
+        }
+        logInfo(report.toString());
+        return report;
+    }
+
+    private JsonStreamValidator pageValidator(int pageNumber, Set<String> seenKeys, CrawlReport report) {
+        return new JsonStreamValidator()
+                .expectField("page", new JsonPrimitive(pageNumber))
+                .forEachElement(recordsPath, (index, element) -> {
+                    report.recordCount.incrementAndGet();
+                    JsonElement key = element.isJsonObject() ? element.getAsJsonObject().get(recordKey) : null;
+                    if (key == null) {
+                        return "missing key '" + recordKey + "'";
+                    }
+                    if (!seenKeys.add(key.toString())) {
+                        return "duplicate " + recordKey + " " + key + " already seen on another page";
+                    }
+                    return recordRule == null ? null : recordRule.validate(index, element);
+                });
+    }
+
+    private void fetchPage(String uri, int pageNumber, JsonStreamValidator validator, CrawlReport report) {
+        try {
+            IServiceResponse response = ServiceCaller.getRequest(uri, validator);
+            report.pagesFetched.incrementAndGet();
+            if (response.getStatusCode() != 200) {
+                report.addFailure("Page " + pageNumber + ": HTTP status " + response.getStatusCode());
+            }
+            validator.getFailures().forEach(failure -> report.addFailure("Page " + pageNumber + ": " + failure));
+        } catch (IOException | RuntimeException e) {
+            report.addFailure("Page " + pageNumber + ": request failed - " + e);
+        }
+    }
+
+    private String pageUri(int pageNumber) {
+        try {
+            return new URIBuilder(baseUri).setParameter(pageParameter, String.valueOf(pageNumber)).build().toString();
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Invalid base uri for pagination: " + baseUri, e);
+        }
+    }
+
+    // Only a number is captured - anything else ("2", null, an object) fails the field check and leaves the target unset.
+    private static Predicate<JsonElement> captureNumber(AtomicReference<JsonElement> target) {
+        return value -> {
+            if (!value.isJsonPrimitive() || !value.getAsJsonPrimitive().isNumber()) {
+                return false;
+            }
+            target.set(value);
+            return true;
+        };
+    }
+
+    /**
+     * Outcome of a crawl. Failure messages are capped (all failures are still counted).
+     */
+    public static class CrawlReport {
+        private static final int MAX_RECORDED_FAILURES = 200;
+
+        private final AtomicInteger pagesFetched = new AtomicInteger();
+        private final AtomicLong recordCount = new AtomicLong();
+        private final AtomicLong failureCount = new AtomicLong();
+        private final List<String> failures = Collections.synchronizedList(new ArrayList<>());
+
+        private void addFailure(String failure) {
+            if (failureCount.incrementAndGet() <= MAX_RECORDED_FAILURES) {
+                failures.add(failure);
+            }
+        }
+
+        public int getPagesFetched() {
+            return pagesFetched.get();
+        }
+
+        public long getRecordCount() {
+            return recordCount.get();
+        }
+
+        public boolean isValid() {
+            return failureCount.get() == 0;
+        }
+
+        public long getFailureCount() {
+            return failureCount.get();
+        }
+
+        public List<String> getFailures() {
+            synchronized (failures) {
+                return List.copyOf(failures);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Pagination crawl complete - pages: %d, records: %d, failures: %d",
+                    getPagesFetched(), getRecordCount(), getFailureCount());
+        }
+    }
+
+    public static class Builder {
+        private final String baseUri;
+        private String pageParameter = "page";
+        private String recordsPath = "data";
+        private String recordKey = "id";
+        private int parallelism = 4;
+        private JsonStreamValidator.ElementRule recordRule;
+
+        private Builder(String baseUri) {
+            this.baseUri = baseUri;
+        }
+
+        public Builder pageParameter(String pageParameter) {
+            this.pageParameter = pageParameter;
+            return this;
+        }
+
+        /** Path of the records array in each page, and the field that uniquely identifies a record. */
+        public Builder records(String recordsPath, String recordKey) {
+            this.recordsPath = recordsPath;
+            this.recordKey = recordKey;
+            return this;
+        }
+
+        public Builder parallelism(int parallelism) {
+            if (parallelism < 1) {
+                throw new IllegalArgumentException("Crawl parallelism must be at least 1, got: " + parallelism);
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /** Validation applied to every record - returns a failure description, or null when valid. */
+        public Builder recordRule(JsonStreamValidator.ElementRule recordRule) {
+            this.recordRule = recordRule;
+            return this;
+        }
+
+        public PaginationCrawler build() {
+            return new PaginationCrawler(this);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package util;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts work handed to a background thread, so that a caller can wait until all of it is done.
+ * Design Note: the waiting thread sleeps on this object's monitor and is woken when the count reaches zero, instead of
+ * spinning on the count - a spinning flush takes a whole core from the very thread it is waiting for.
+ * The count itself is lock free; the monitor is only taken when it drops to zero.
+ */
+final class PendingTasks {
+
+    private final AtomicLong pending = new AtomicLong();
+
+    void added() {
+        pending.incrementAndGet();
+    }
+
+    void finished() {
+        if (pending.decrementAndGet() == 0) {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    long count() {
+        return pending.get();
+    }
+
+    /**
+     * Waits until no task is pending or the timeout passes - false on timeout or interrupt (the interrupt is kept).
+     */
+    synchronized boolean awaitNone(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        try {
+            while (pending.get() > 0) {
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMillis <= 0) {
+                    return false;
+                }
+                wait(remainingMillis);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package util;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assumptions.abort;
+import static util.LogWrapper.logError;
+import static util.LogWrapper.logInfo;
+
+/**
+ * Suite pre-flight stage, run from a suite's @BeforeAll - so a dead service or a broken fixture costs one short probe
+ * rather than the full timeout (or a misleading failure) in every test, and cold-start costs stay out of the first tests' timings.
+ * In order:
+ * <ol>
+ *     <li>probes each endpoint once (in parallel) with a short timeout, while the fixtures load and parse in parallel
+ *     into the {@link FixtureStore}</li>
+ *     <li>pre-opens pooled connections to each endpoint's host, which for https also primes the TLS session cache</li>
+ *     <li>runs the warm-up task (typically the suite's validation code over fixture data) so the JIT has compiled it</li>
+ * </ol>
+ * An unreachable endpoint (I/O failure or timeout, or a 502 / 503 / 504 status) or a fixture that does not load aborts the
+ * suite as a failed assumption - JUnit reports its tests as aborted, not failed, as they say nothing about the api under test.
+ * Design Note: probes go to the backend client directly (no recording, artifacts or latency baseline), following
+ * -Dapi.mode=replay and -Dhttp.backend like {@link ServiceCaller}. With the JDK backend the probe itself opens the
+ * (multiplexed) connection, so no further connections are pre-opened.
+ * Disable with -Dpreflight.enabled=false.
+ */
+public class Preflight {
+
+    public static final String ENABLED_KEY = "preflight.enabled";
+    public static final String PROBE_TIMEOUT_MS_KEY = "preflight.probeTimeoutMillis";
+    public static final String CONNECTIONS_KEY = "preflight.connections";
+    public static final String WARM_UP_ITERATIONS_KEY = "preflight.warmUpIterations";
+
+    /**
+     * Work to repeat for JIT warm-up - it must not call the service. Any exception fails the pre-flight stage.
+     */
+    @FunctionalInterface
+    public interface WarmUpTask {
+        void execute() throws Exception;
+    }
+
+    /**
+     * What the pre-flight stage did, for the suite log.
+     */
+    public record Report(int endpointsProbed, int connectionsOpened, int fixturesLoaded, int warmUpIterations, Duration elapsed) {
+        @Override
+        public String toString() {
+            return String.format("Pre-flight complete in %d ms - endpoints probed: %d, connections opened: %d, fixtures loaded: %d, warm-up iterations: %d",
+                    elapsed.toMillis(), endpointsProbed, connectionsOpened, fixturesLoaded, warmUpIterations);
+        }
+    }
+
+    private final List<String> endpoints;
+    private final List<Path> fixtureDirectories;
+    private final WarmUpTask warmUpTask;
+    private final int warmUpIterations;
+    private final int probeTimeoutMillis;
+    private final int connections;
+
+    private Preflight(Builder builder) {
+        this.endpoints = List.copyOf(builder.endpoints);
+        this.fixtureDirectories = List.copyOf(builder.fixtureDirectories);
+        this.warmUpTask = builder.warmUpTask;
+        this.warmUpIterations = builder.warmUpTask == null ? 0 : FrameworkConfig.getInt(WARM_UP_ITERATIONS_KEY, builder.warmUpIterations);
+        this.probeTimeoutMillis = FrameworkConfig.getInt(PROBE_TIMEOUT_MS_KEY, 3000);
+        this.connections = FrameworkConfig.getInt(CONNECTIONS_KEY, 4);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static boolean isEnabled() {
+        return FrameworkConfig.getBoolean(ENABLED_KEY, true);
+    }
+
+    /**
+     * Runs the stage, aborting the calling suite (a JUnit TestAbortedException) when an endpoint or fixture is unavailable.
+     * Does nothing when disabled.
+     */
+    public Report run() throws Exception {
+        if (!isEnabled()) {
+            return new Report(0, 0, 0, 0, Duration.ZERO);
+        }
+        long start = System.nanoTime();
+
+        CompletableFuture<Integer> fixtures = CompletableFuture.supplyAsync(this::preloadFixtures,
+                LogWrapper.withTestContext(ForkJoinPool.commonPool()));
+        List<String> unavailable = endpoints.parallelStream().map(this::probe).filter(Objects::nonNull).toList();
+        int fixturesLoaded;
+        try {
+            fixturesLoaded = fixtures.join();
+        } catch (CompletionException e) {
+            return abortSuite("fixtures could not be loaded - " + e.getCause());
+        }
+        if (!unavailable.isEmpty()) {
+            return abortSuite("service unavailable - " + String.join("; ", unavailable));
+        }
+
+        int connectionsOpened = 0;
+        if (HttpBackend.current() == HttpBackend.APACHE) {
+            for (String endpoint : endpoints) {
+                try {
+                    connectionsOpened += HttpClientEngine.preopenConnections(target(URI.create(endpoint)), connections, probeTimeoutMillis);
+                } catch (IOException e) {
+                    // The probe got through, so the tests can still run - they just open their own connections.
+                    logError("Pre-flight: could not pre-open connections for " + endpoint + ": " + e);
+                }
+            }
+        }
+
+        for (int i = 0; i < warmUpIterations; i++) {
+            warmUpTask.execute();
+        }
+
+        Report report = new Report(endpoints.size(), connectionsOpened, fixturesLoaded, warmUpIterations,
+                Duration.ofNanos(System.nanoTime() - start));
+        logInfo(report.toString());
+        return report;
+    }
+
+    // Logged as well - surefire does not list the tests of a suite aborted in @BeforeAll, not even as skipped.
+    private static Report abortSuite(String reason) {
+        logError("Pre-flight: suite aborted, " + reason);
+        return abort("Pre-flight: " + reason);
+    }
+
+    private int preloadFixtures() {
+        int loaded = 0;
+        for (Path directory : fixtureDirectories) {
+            try {
+                loaded += FixtureStore.preload(directory);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }
+        return loaded;
+    }
+
+    // Returns null when the endpoint responded, otherwise why it is considered down.
+    private String probe(String endpoint) {
+        URI uri = URI.create(endpoint);
+        long start = System.nanoTime();
+        int status;
+        try {
+            status = HttpBackend.current() == HttpBackend.JDK ? probeJdk(uri) : probeApache(uri);
+        } catch (IOException e) {
+            return endpoint + " unreachable (probe timeout " + probeTimeoutMillis + " ms): " + e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return endpoint + " probe interrupted";
+        }
+        logInfo(String.format("Pre-flight: %s responded with %d in %d ms", endpoint, status, (System.nanoTime() - start) / 1_000_000));
+        return status == 502 || status == 503 || status == 504 ? endpoint + " responded with " + status : null;
+    }
+
+    private int probeApache(URI uri) throws IOException {
+        HttpGet request = new HttpGet(uri);
+        request.setConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(probeTimeoutMillis)
+                .setConnectTimeout(probeTimeoutMillis)
+                .setSocketTimeout(probeTimeoutMillis)
+                .build());
+        if (StubServer.isReplayed(uri)) {
+            StubServer.redirectToReplay(request);
+        }
+        try (CloseableHttpResponse response = HttpClientEngine.getClient().execute(request)) {
+            // Consumed in full, so the connection goes back to the pool for the tests to reuse.
+            EntityUtils.consume(response.getEntity());
+            return response.getStatusLine().getStatusCode();
+        }
+    }
+
+    private int probeJdk(URI uri) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(target(uri)).GET().timeout(Duration.ofMillis(probeTimeoutMillis));
+        if (StubServer.isReplayed(uri)) {
+            request.header(StubServer.REPLAY_ORIGIN_HEADER, StubServer.replayOrigin(uri));
+        }
+        return JdkHttpEngine.getClient().send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    // Where requests for the uri actually go - the replay server in replay mode.
+    private static URI target(URI uri) throws IOException {
+        return StubServer.isReplayed(uri) ? StubServer.replayUri(uri) : uri;
+    }
+
+    public static class Builder {
+        private final List<String> endpoints = new ArrayList<>();
+        private final List<Path> fixtureDirectories = new ArrayList<>();
+        private WarmUpTask warmUpTask;
+        private int warmUpIterations;
+
+        private Builder() {
+        }
+
+        /** An endpoint the suite depends on - probed with a GET. */
+        public Builder probe(String uri) {
+            endpoints.add(uri);
+            return this;
+        }
+
+        /** Every .json file under the directory is loaded into the {@link FixtureStore}. */
+        public Builder fixtures(Path directory) {
+            fixtureDirectories.add(directory);
+            return this;
+        }
+
+        /** Repeats the task, by default 'iterations' times - -Dpreflight.warmUpIterations overrides it (0 disables). */
+        public Builder warmUp(WarmUpTask task, int iterations) {
+            this.warmUpTask = task;
+            this.warmUpIterations = iterations;
+            return this;
+        }
+
+        public Preflight build() {
+            return new Preflight(this);
+        }
+    }
+}
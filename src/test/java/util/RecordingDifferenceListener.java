@@ -22,15 +22,30 @@ import net.javacrumbs.jsonunit.core.listener.DifferenceListener;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Note: thread-safe, so one listener may be shared by comparisons running on several threads -
+ * suites running in parallel should still create one listener per test so that differences never leak between tests.
+ */
 public class RecordingDifferenceListener implements DifferenceListener {
     private final List<Difference> differenceList = new ArrayList<>();
 
     @Override
     public void diff(Difference difference, DifferenceContext context) {
-        differenceList.add(difference);
+        synchronized (differenceList) {
+            differenceList.add(difference);
+        }
     }
 
+    // Returns a snapshot - later differences are not reflected in a list already returned.
     public List<Difference> getDifferenceList() {
-        return differenceList;
+        synchronized (differenceList) {
+            return List.copyOf(differenceList);
+        }
+    }
+
+    public void clear() {
+        synchronized (differenceList) {
+            differenceList.clear();
+        }
     }
-}
\ No newline at end of file
+}
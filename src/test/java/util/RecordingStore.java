@@ -0,0 +1,112 @@
+package util;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static util.LogWrapper.logInfo;
+
+/**
+ * Saves and loads recorded service responses - one JSON file per method + URI under -Dapi.recordings.dir
+ * (default src/test/recordings), so recordings can be reviewed and committed with the tests that use them.
+ * Note: bodies are stored as UTF-8 text, which suits the JSON apis under test.
+ * Files are written to a temporary file and moved into place, so tests recording the same request in parallel
+ * never leave a partly written or interleaved recording - the last one written wins.
+ */
+public class RecordingStore {
+
+    public static final String RECORDINGS_DIR_KEY = "api.recordings.dir";
+
+    private static final Gson gson = new GsonBuilder()
+            .serializeNulls()
+            .setPrettyPrinting()
+            .disableHtmlEscaping()
+            .create();
+
+    /**
+     * A recorded response. Headers keep their received order and any repeated values.
+     */
+    public record Recording(String method, String uri, int statusCode, String statusText,
+                            Map<String, List<String>> headers, String body) {
+    }
+
+    private final Path directory;
+
+    public RecordingStore(Path directory) {
+        this.directory = directory;
+    }
+
+    public static RecordingStore fromConfig() {
+        return new RecordingStore(Paths.get(FrameworkConfig.getString(RECORDINGS_DIR_KEY, "src/test/recordings")));
+    }
+
+    public void save(String method, URI uri, IServiceResponse response) throws IOException {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        response.getHeaders().keySet().forEach(name -> headers.put(name, response.getHeaderValues(name)));
+        Recording recording = new Recording(method, uri.toString(), response.getStatusCode(), response.getStatusText(),
+                headers, response.getBody());
+
+        Path file = fileFor(method, uri);
+        Files.createDirectories(file.getParent());
+        Path temporary = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                gson.toJson(recording, writer);
+            }
+            Files.move(temporary, file, ATOMIC_MOVE, REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        logInfo("Recorded " + method + " " + uri + " to: " + file);
+    }
+
+    /**
+     * Returns null when nothing has been recorded for the request.
+     */
+    public Recording load(String method, URI uri) throws IOException {
+        Path file = fileFor(method, uri);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return gson.fromJson(reader, Recording.class);
+        }
+    }
+
+    // e.g. GET https://reqres.in/api/users?page=2 -> reqres.in/GET_api_users_<query digest>.json
+    Path fileFor(String method, URI uri) {
+        String path = uri.getPath() == null || uri.getPath().isEmpty() ? "/" : uri.getPath();
+        String name = method + path.replaceAll("[^A-Za-z0-9.-]+", "_");
+        if (uri.getQuery() != null) {
+            name += "_" + queryDigest(uri.getQuery());
+        }
+        String host = uri.getPort() == -1 ? uri.getHost() : uri.getHost() + "_" + uri.getPort();
+        return directory.resolve(host).resolve(name + ".json");
+    }
+
+    // First 64 bits of the query's SHA-256 - unlike a 32-bit hashCode, distinct queries never share a file in practice.
+    private static String queryDigest(String query) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(query.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package util;
+
+import org.apache.http.protocol.HttpContext;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Where the time of one request went - connect, TLS handshake, time to first byte (response headers received)
+ * and total (body fully read) - plus the response body size in bytes.
+ * Connect and TLS are zero when a pooled keep-alive connection was reused, which is the expected case after warm-up.
+ */
+public record RequestTimings(Duration connect, Duration tlsHandshake, Duration timeToFirstByte, Duration total,
+                             long responseBytes) {
+
+    public static final RequestTimings NONE = new RequestTimings(Duration.ZERO, Duration.ZERO, Duration.ZERO, Duration.ZERO, 0);
+
+    // Entry names used for JUnit report entries - see ITestValidation.reportTimings.
+    public Map<String, String> asReportEntries() {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("connectMs", millis(connect));
+        entries.put("tlsHandshakeMs", millis(tlsHandshake));
+        entries.put("ttfbMs", millis(timeToFirstByte));
+        entries.put("totalMs", millis(total));
+        entries.put("responseBytes", String.valueOf(responseBytes));
+        return entries;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("connect: %s ms, tls: %s ms, ttfb: %s ms, total: %s ms, bytes: %d",
+                millis(connect), millis(tlsHandshake), millis(timeToFirstByte), millis(total), responseBytes);
+    }
+
+    private static String millis(Duration duration) {
+        return String.format("%.3f", duration.toNanos() / 1_000_000.0);
+    }
+
+    /**
+     * Collects timestamps for one request while it executes. Stored in the request's HttpContext,
+     * where the socket factories and response interceptor of {@link HttpClientEngine} find it.
+     */
+    public static class Recorder {
+        static final String CONTEXT_ATTRIBUTE = "util.RequestTimings.Recorder";
+
+        private final long startNanos = System.nanoTime();
+        private volatile long connectNanos;
+        private volatile long tlsNanos;
+        private volatile long firstByteNanos;
+
+        public static Recorder from(HttpContext context) {
+            Object recorder = context == null ? null : context.getAttribute(CONTEXT_ATTRIBUTE);
+            return recorder instanceof Recorder ? (Recorder) recorder : null;
+        }
+
+        public void attachTo(HttpContext context) {
+            context.setAttribute(CONTEXT_ATTRIBUTE, this);
+        }
+
+        // Socket connect time including any TLS handshake - the handshake is recorded separately and subtracted.
+        void connected(long socketConnectNanos) {
+            connectNanos += socketConnectNanos;
+        }
+
+        void tlsHandshakeCompleted(long handshakeNanos) {
+            tlsNanos += handshakeNanos;
+        }
+
+        void firstByteReceived() {
+            if (firstByteNanos == 0) {
+                firstByteNanos = System.nanoTime();
+            }
+        }
+
+        public RequestTimings finish(long responseBytes) {
+            long end = System.nanoTime();
+            long ttfb = firstByteNanos == 0 ? end - startNanos : firstByteNanos - startNanos;
+            return new RequestTimings(Duration.ofNanos(Math.max(connectNanos - tlsNanos, 0)), Duration.ofNanos(tlsNanos),
+                    Duration.ofNanos(ttfb), Duration.ofNanos(end - startNanos), responseBytes);
+        }
+    }
+}
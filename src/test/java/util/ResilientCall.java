@@ -0,0 +1,368 @@
+package util;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static util.LogWrapper.logDebug;
+
+/**
+ * Runs one {@link ServiceCaller} call under a {@link CallPolicy}, so that a few stuck or failing requests cannot set the
+ * pace of a whole run:
+ * <ul>
+ *     <li>a deadline for the whole call - any attempt still in flight when it passes is abandoned (aborted / cancelled)
+ *     and the call fails with an HttpTimeoutException</li>
+ *     <li>retries of idempotent methods after an I/O failure or a 429 / 502 / 503 / 504, with exponential backoff and
+ *     full jitter, each paid for from the {@link RetryBudget} - when it is spent the last answer stands</li>
+ *     <li>hedged reads - when the first request of a GET has not answered within the policy's percentile of the endpoint's
+ *     latencies so far, a second is sent (also paid from the budget) and whichever answers first is used, the other abandoned -
+ *     a retryable status is not an answer while the other request is still in flight, it is only retried or used after it</li>
+ * </ul>
+ * Every attempt is recorded on the returned response, see {@link IServiceResponse#getAttempts()}.
+ * Design Note: attempts are futures completed by the backend, so the deadline, hedge and backoff timers need no thread
+ * per call - a blocking first attempt runs on the caller's thread, retries and hedges on a shared daemon pool.
+ * Hedging is skipped in record mode, where two responses would race to be saved.
+ */
+public class ResilientCall {
+
+    /**
+     * Starts one attempt. It must complete 'result' with the response or failure, and give up on the request
+     * (abort / cancel) if 'result' is completed first by the call - a hedge answered first or the deadline passed.
+     * The timeout is the time left before the deadline, never under a millisecond. Blocking work runs on the executor.
+     */
+    @FunctionalInterface
+    public interface Attempt {
+        void start(CompletableFuture<IServiceResponse> result, Duration timeout, Executor executor);
+    }
+
+    private static final Executor CALLER_THREAD = Runnable::run;
+    private static final long TIMEOUT_RESOLUTION_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final ScheduledThreadPoolExecutor timers = newTimers();
+    private static final ExecutorService attemptPool = newAttemptPool();
+    // Latencies of answered attempts per endpoint since the start of the run - the basis of hedge delays.
+    private static final Map<String, Histogram> latencies = new ConcurrentHashMap<>();
+
+    private final String method;
+    private final URI uri;
+    private final CallPolicy policy;
+    private final Attempt attempt;
+    private final String endpointKey;
+    private final long startNanos = System.nanoTime();
+    private final long deadlineNanos;
+    private final CompletableFuture<IServiceResponse> outcome = new CompletableFuture<>();
+    // Bound to the calling test's context - retries and hedges run on other threads but belong to the same test.
+    private final Executor callerThread = LogWrapper.withTestContext(CALLER_THREAD);
+    private final Executor pool = LogWrapper.withTestContext(attemptPool);
+    // All guarded by 'this'.
+    private final List<Running> attempts = new ArrayList<>();
+    private final List<Throwable> failures = new ArrayList<>();
+    private boolean settled;
+    // The latest retryable answer set aside for another attempt - used if nothing better comes of it.
+    private Running heldAnswer;
+    private IServiceResponse heldResponse;
+    private ScheduledFuture<?> deadlineTimer;
+
+    // One attempt in flight or done. 'outcome' is set once it is known.
+    private final class Running {
+        private final int number;
+        private final CallAttempt.Kind kind;
+        private final long startedNanos = System.nanoTime();
+        private final CompletableFuture<IServiceResponse> result = new CompletableFuture<>();
+        private long endNanos;
+        private int statusCode;
+        private String failure;
+        private CallAttempt.Outcome outcome;
+
+        private Running(int number, CallAttempt.Kind kind) {
+            this.number = number;
+            this.kind = kind;
+        }
+
+        private void cancel(String reason, Throwable cause) {
+            outcome = CallAttempt.Outcome.CANCELLED;
+            endNanos = System.nanoTime();
+            failure = reason;
+            result.completeExceptionally(cause);
+        }
+
+        private CallAttempt toCallAttempt() {
+            return new CallAttempt(number, kind, Duration.ofNanos(startedNanos - startNanos),
+                    Duration.ofNanos((endNanos == 0 ? System.nanoTime() : endNanos) - startedNanos), statusCode, failure, outcome);
+        }
+    }
+
+    private ResilientCall(String method, URI uri, CallPolicy policy, Attempt attempt) {
+        this.method = method;
+        this.uri = uri;
+        this.policy = policy;
+        this.attempt = attempt;
+        this.endpointKey = method + " " + uri.getScheme() + "://" + uri.getRawAuthority() + uri.getRawPath();
+        this.deadlineNanos = startNanos + policy.getDeadline().toNanos();
+    }
+
+    /**
+     * Starts the call - the first attempt runs on the calling thread if it blocks. The future completes with the
+     * response used, or the failure (an IOException for I/O failures and the deadline).
+     */
+    public static CompletableFuture<IServiceResponse> execute(String method, URI uri, CallPolicy policy, Attempt attempt) {
+        ResilientCall call = new ResilientCall(method, uri, policy, attempt);
+        policy.getRetryBudget().callStarted();
+        synchronized (call) {
+            call.deadlineTimer = timers.schedule(call::deadlinePassed, policy.getDeadline().toNanos(), TimeUnit.NANOSECONDS);
+        }
+        call.startTry(1, CallAttempt.Kind.FIRST, call.callerThread);
+        return call.outcome;
+    }
+
+    private void startTry(int number, CallAttempt.Kind kind, Executor executor) {
+        Running first;
+        synchronized (this) {
+            if (settled) {
+                return;
+            }
+            first = register(number, kind);
+        }
+        // The hedge timer is armed before the first request starts - a blocking attempt only returns once it is done.
+        long hedgeDelayNanos = hedgeDelayNanos();
+        if (hedgeDelayNanos > 0 && System.nanoTime() + hedgeDelayNanos < deadlineNanos) {
+            ScheduledFuture<?> hedgeTimer = timers.schedule(() -> startHedge(first), hedgeDelayNanos, TimeUnit.NANOSECONDS);
+            first.result.whenComplete((response, failure) -> hedgeTimer.cancel(false));
+        }
+        launch(first, executor);
+    }
+
+    private void startHedge(Running first) {
+        Running hedge;
+        synchronized (this) {
+            if (settled || first.result.isDone() || !policy.getRetryBudget().tryAcquire()) {
+                return;
+            }
+            hedge = register(first.number, CallAttempt.Kind.HEDGE);
+        }
+        logDebug(() -> "Hedging " + endpointKey + " - no answer after " + Duration.ofNanos(System.nanoTime() - first.startedNanos).toMillis() + " ms");
+        launch(hedge, pool);
+    }
+
+    // Caller holds the lock.
+    private Running register(int number, CallAttempt.Kind kind) {
+        Running running = new Running(number, kind);
+        attempts.add(running);
+        running.result.whenComplete((response, failure) -> attemptCompleted(running, response, failure));
+        return running;
+    }
+
+    private void launch(Running running, Executor executor) {
+        long remainingNanos = deadlineNanos - System.nanoTime();
+        if (remainingNanos < TIMEOUT_RESOLUTION_NANOS) {
+            return; // no time left to send anything - the deadline timer is due, and abandons this attempt
+        }
+        try {
+            attempt.start(running.result, Duration.ofNanos(remainingNanos), executor);
+        } catch (RuntimeException e) {
+            running.result.completeExceptionally(e);
+        }
+    }
+
+    private void attemptCompleted(Running running, IServiceResponse response, Throwable failure) {
+        IServiceResponse used = null;
+        Throwable callFailure = null;
+        synchronized (this) {
+            if (running.outcome != null || settled) {
+                // Cancelled by the call itself, or answered after the call was settled - nothing left to decide.
+                if (running.endNanos == 0) {
+                    running.endNanos = System.nanoTime();
+                }
+                return;
+            }
+            running.endNanos = System.nanoTime();
+            boolean othersRunning = othersRunning(running);
+            if (response != null) {
+                running.statusCode = response.getStatusCode();
+                if (!CallPolicy.isRetryableStatus(running.statusCode)) {
+                    recordLatency(running.endNanos - running.startedNanos);
+                } else if (othersRunning || scheduleRetry(running.number)) {
+                    // Not an answer to keep - the other request of a hedged pair may yet succeed, or a retry is due.
+                    running.outcome = CallAttempt.Outcome.DISCARDED;
+                    heldAnswer = running;
+                    heldResponse = response;
+                    return;
+                }
+                cancelOthers(running);
+                running.outcome = CallAttempt.Outcome.USED;
+                used = response;
+            } else {
+                running.failure = failure.toString();
+                running.outcome = CallAttempt.Outcome.FAILED;
+                failures.add(failure);
+                // An attempt timing out with the call is the deadline passing - the timer reports it, as an HttpTimeoutException.
+                if (othersRunning || outOfTime() || (failure instanceof IOException && scheduleRetry(running.number))) {
+                    return;
+                }
+                if (heldResponse != null) {
+                    // The last answer stands - a retryable status set aside while another attempt ran beats an exception.
+                    heldAnswer.outcome = CallAttempt.Outcome.USED;
+                    used = heldResponse;
+                } else {
+                    callFailure = callFailure(failure);
+                }
+            }
+            settle();
+        }
+        complete(used, callFailure);
+    }
+
+    // Caller holds the lock.
+    private boolean othersRunning(Running answered) {
+        for (Running other : attempts) {
+            if (other != answered && other.outcome == null && !other.result.isDone()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Caller holds the lock. Only once an answer is used - the other request of a hedged pair is abandoned.
+    private void cancelOthers(Running answered) {
+        for (Running other : attempts) {
+            if (other != answered && other.outcome == null && !other.result.isDone()) {
+                other.cancel("abandoned - attempt #" + answered.number + " " + answered.kind + " answered first",
+                        new CancellationException("Answered by another attempt"));
+            }
+        }
+    }
+
+    // Caller holds the lock. True when another try has been scheduled after a backoff.
+    private boolean scheduleRetry(int tried) {
+        if (!policy.isRetryable(method) || tried >= policy.getMaxAttempts()) {
+            return false;
+        }
+        long backoffMillis = policy.backoffMillis(tried, ThreadLocalRandom.current().nextDouble());
+        if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMillis) >= deadlineNanos || !policy.getRetryBudget().tryAcquire()) {
+            return false;
+        }
+        logDebug(() -> "Retrying " + endpointKey + " in " + backoffMillis + " ms (attempt " + (tried + 1) + " of " + policy.getMaxAttempts() + ")");
+        // The retry already runs on a pool thread, so a blocking attempt can run right there.
+        CompletableFuture.delayedExecutor(backoffMillis, TimeUnit.MILLISECONDS, pool)
+                .execute(() -> startTry(tried + 1, CallAttempt.Kind.RETRY, CALLER_THREAD));
+        return true;
+    }
+
+    /* Attempt timeouts are set in whole milliseconds from the time remaining, so an attempt given all of it can time out
+       up to a millisecond before the deadline timer fires.
+     */
+    private boolean outOfTime() {
+        return System.nanoTime() + TIMEOUT_RESOLUTION_NANOS >= deadlineNanos;
+    }
+
+    private void deadlinePassed() {
+        HttpTimeoutException timeout;
+        synchronized (this) {
+            if (settled) {
+                return;
+            }
+            timeout = new HttpTimeoutException(String.format("%s %s exceeded its deadline of %d ms", method, uri, policy.getDeadline().toMillis()));
+            for (Running running : attempts) {
+                if (running.outcome == null && !running.result.isDone()) {
+                    running.cancel("abandoned - call deadline passed", timeout);
+                }
+            }
+            failures.forEach(timeout::addSuppressed);
+            settle();
+        }
+        complete(null, timeout);
+    }
+
+    // Caller holds the lock.
+    private Throwable callFailure(Throwable last) {
+        if (attempts.size() == 1 || !(last instanceof IOException)) {
+            return last;
+        }
+        IOException failure = new IOException(String.format("%s %s failed after %d attempts", method, uri, attempts.size()), last);
+        failures.stream().filter(earlier -> earlier != last).forEach(failure::addSuppressed);
+        return failure;
+    }
+
+    // Caller holds the lock.
+    private void settle() {
+        settled = true;
+        deadlineTimer.cancel(false);
+    }
+
+    // Outside the lock - completing the outcome runs the caller's dependent stages.
+    private void complete(IServiceResponse used, Throwable failure) {
+        List<CallAttempt> record;
+        synchronized (this) {
+            record = attempts.stream().map(Running::toCallAttempt).toList();
+        }
+        if (used != null) {
+            if (used instanceof ServiceResponse serviceResponse) {
+                serviceResponse.setAttempts(record);
+            } else if (used instanceof JdkServiceResponse jdkResponse) {
+                jdkResponse.setAttempts(record);
+            }
+            if (record.size() > 1) {
+                logDebug(() -> endpointKey + " answered after " + record.size() + " attempts: " + record);
+            }
+            outcome.complete(used);
+        } else {
+            outcome.completeExceptionally(failure);
+        }
+    }
+
+    private void recordLatency(long nanos) {
+        latencies.computeIfAbsent(endpointKey, key -> new ConcurrentHistogram(3))
+                .recordValue(Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 1));
+    }
+
+    // 0 when this call is not hedged, or too little is known of the endpoint yet to pick a delay.
+    private long hedgeDelayNanos() {
+        if (!policy.isHedged(method) || ApiMode.current() == ApiMode.RECORD) {
+            return 0;
+        }
+        Histogram endpointLatencies = latencies.get(endpointKey);
+        if (endpointLatencies == null || endpointLatencies.getTotalCount() < policy.getHedgeMinSamples()) {
+            return 0;
+        }
+        long percentileNanos = TimeUnit.MICROSECONDS.toNanos(endpointLatencies.getValueAtPercentile(policy.getHedgePercentile()));
+        return Math.max(percentileNanos, policy.getHedgeMinDelay().toNanos());
+    }
+
+    // Daemon threads - pending timers must never keep the test JVM alive.
+    private static ScheduledThreadPoolExecutor newTimers() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "http-call-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Most timers (deadlines, hedges) are cancelled - drop them at once rather than holding them until they were due.
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    private static ExecutorService newAttemptPool() {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "http-call-attempt-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
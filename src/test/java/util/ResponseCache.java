@@ -0,0 +1,349 @@
+package util;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static util.LogWrapper.logDebug;
+
+/**
+ * Opt-in (-Dhttp.cache.enabled=true) cache of buffered GET responses, used by {@link ServiceCaller} so that suites repeatedly
+ * reading the same reference data stop paying a full round trip (and server load) for identical responses.
+ * An entry is served without a network call while fresh - for the shorter of -Dhttp.cache.ttlSeconds and the response's own
+ * Cache-Control max-age less its Age. After that it is revalidated with If-None-Match / If-Modified-Since, and a 304 refreshes
+ * the stored headers and keeps the stored body. Concurrent identical requests share one network call (single flight).
+ * Responses marked no-store, non-200 responses and streamed bodies are never stored; no-cache responses are always revalidated.
+ * Bounded by -Dhttp.cache.maxEntries and -Dhttp.cache.maxBytes (body bytes), least recently used entries are evicted first.
+ * Design Note: a cache hit is a different response object than the one first received - its Age header is advanced by the
+ * time spent in the cache, and its timings are {@link RequestTimings#NONE} (or those of the 304 call) since no body was fetched.
+ */
+public class ResponseCache {
+
+    public static final String ENABLED_KEY = "http.cache.enabled";
+    public static final String TTL_SECONDS_KEY = "http.cache.ttlSeconds";
+    public static final String MAX_ENTRIES_KEY = "http.cache.maxEntries";
+    public static final String MAX_BYTES_KEY = "http.cache.maxBytes";
+
+    private static final Pattern MAX_AGE = Pattern.compile("max-age\\s*=\\s*\"?(\\d+)");
+    // Headers describing the connection or framing of one exchange - never taken from a 304 into the stored response.
+    private static final Set<String> NON_MERGED_HEADERS = Set.of("content-length", "transfer-encoding", "connection", "content-encoding");
+
+    private static ResponseCache sharedCache;
+
+    private final Duration ttl;
+    private final int maxEntries;
+    private final long maxBytes;
+
+    // Access ordered, so iteration starts from the least recently used entry.
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long cachedBytes = 0;
+    private final Map<String, CompletableFuture<IServiceResponse>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Fetches a response over the network, adding the given conditional request headers (empty when not revalidating).
+     */
+    @FunctionalInterface
+    public interface Loader {
+        IServiceResponse load(Map<String, String> conditionalHeaders) throws IOException;
+    }
+
+    public ResponseCache(Duration ttl, int maxEntries, long maxBytes) {
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    public static boolean isEnabled() {
+        return FrameworkConfig.getBoolean(ENABLED_KEY, false);
+    }
+
+    /**
+     * The cache shared by {@link ServiceCaller}, sized from the http.cache.* system properties.
+     */
+    public static synchronized ResponseCache getSharedCache() {
+        if (sharedCache == null) {
+            sharedCache = new ResponseCache(Duration.ofSeconds(FrameworkConfig.getLong(TTL_SECONDS_KEY, 60)),
+                    FrameworkConfig.getInt(MAX_ENTRIES_KEY, 256), FrameworkConfig.getLong(MAX_BYTES_KEY, 32L * 1024 * 1024));
+        }
+        return sharedCache;
+    }
+
+    /**
+     * Returns the cached response for the key while fresh, otherwise loads (or revalidates) it - sharing the call with
+     * any other thread loading the same key at the same time.
+     */
+    public IServiceResponse get(String key, Loader loader) throws IOException {
+        CachedResponse cached = lookup(key);
+        if (cached != null && cached.isFresh(ttl)) {
+            logDebug(() -> "Response cache hit: " + key);
+            return cached.asServed(RequestTimings.NONE, List.of());
+        }
+
+        CompletableFuture<IServiceResponse> call = new CompletableFuture<>();
+        CompletableFuture<IServiceResponse> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            return join(existing);
+        }
+        try {
+            call.complete(load(key, cached, loader));
+        } catch (Throwable e) {
+            // Any failure must complete the call, or the threads waiting on it would never return.
+            call.completeExceptionally(e);
+        } finally {
+            inFlight.remove(key, call);
+        }
+        return join(call);
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            cachedBytes = 0;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private IServiceResponse load(String key, CachedResponse cached, Loader loader) throws IOException {
+        IServiceResponse response = loader.load(cached == null ? Map.of() : cached.conditionalHeaders());
+        if (cached != null && response.getStatusCode() == 304) {
+            logDebug(() -> "Response cache revalidated (304): " + key);
+            CachedResponse refreshed = cached.refreshedBy(response);
+            store(key, refreshed);
+            return refreshed.asServed(response.getTimings(), response.getAttempts());
+        }
+        CachedResponse storable = CachedResponse.from(response);
+        if (storable != null) {
+            store(key, storable);
+        } else if (cached != null) {
+            remove(key);
+        }
+        return response;
+    }
+
+    private CachedResponse lookup(String key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    private void store(String key, CachedResponse response) {
+        synchronized (entries) {
+            CachedResponse replaced = entries.put(key, response);
+            if (replaced != null) {
+                cachedBytes -= replaced.sizeBytes();
+            }
+            cachedBytes += response.sizeBytes();
+            evictIfNeeded();
+        }
+    }
+
+    private void remove(String key) {
+        synchronized (entries) {
+            CachedResponse removed = entries.remove(key);
+            if (removed != null) {
+                cachedBytes -= removed.sizeBytes();
+            }
+        }
+    }
+
+    // Caller holds the entries lock. The newest entry is always kept, even if it alone exceeds the byte limit.
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, CachedResponse>> eldest = entries.entrySet().iterator();
+        while (entries.size() > 1 && (entries.size() > maxEntries || cachedBytes > maxBytes) && eldest.hasNext()) {
+            cachedBytes -= eldest.next().getValue().sizeBytes();
+            eldest.remove();
+        }
+    }
+
+    private static IServiceResponse join(CompletableFuture<IServiceResponse> call) throws IOException {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Cached request failed", e.getCause());
+        }
+    }
+
+    /**
+     * A stored response - immutable, a new instance replaces it on revalidation.
+     */
+    private static final class CachedResponse implements IServiceResponse {
+        private final int statusCode;
+        private final String statusText;
+        private final Map<String, Object> headers;
+        private final String body;
+        private final RequestTimings timings;
+        private final List<CallAttempt> attempts;
+        private final long storedNanos;
+        private final long initialAgeSeconds;
+        private final Duration maxAge;   // null when the response does not declare one
+        private final boolean revalidateAlways;
+
+        private CachedResponse(int statusCode, String statusText, Map<String, Object> headers, String body,
+                               RequestTimings timings, List<CallAttempt> attempts, long storedNanos) {
+            this.statusCode = statusCode;
+            this.statusText = statusText;
+            this.headers = headers;
+            this.body = body;
+            this.timings = timings;
+            this.attempts = attempts;
+            this.storedNanos = storedNanos;
+            String cacheControl = firstValue(headers, "Cache-Control");
+            Matcher maxAgeMatcher = MAX_AGE.matcher(cacheControl == null ? "" : cacheControl.toLowerCase());
+            this.maxAge = maxAgeMatcher.find() ? Duration.ofSeconds(Long.parseLong(maxAgeMatcher.group(1))) : null;
+            this.revalidateAlways = cacheControl != null && cacheControl.toLowerCase().contains("no-cache");
+            this.initialAgeSeconds = parseAge(firstValue(headers, "Age"));
+        }
+
+        // Null when the response must not be stored.
+        static CachedResponse from(IServiceResponse response) {
+            String cacheControl = response.getHeaderValues("Cache-Control").toString().toLowerCase();
+            if (response.getStatusCode() != 200 || response.getBody() == null || cacheControl.contains("no-store")) {
+                return null;
+            }
+            return new CachedResponse(response.getStatusCode(), response.getStatusText(), copyHeaders(response.getHeaders()),
+                    response.getBody(), response.getTimings(), List.of(), System.nanoTime());
+        }
+
+        // Headers of the 304 replace the stored ones of the same name, as a cache would update its stored response.
+        CachedResponse refreshedBy(IServiceResponse notModified) {
+            Map<String, Object> merged = copyHeaders(headers);
+            notModified.getHeaders().forEach((name, value) -> {
+                if (!NON_MERGED_HEADERS.contains(name.toLowerCase())) {
+                    merged.put(name, value);
+                }
+            });
+            if (!notModified.getHeaders().containsKey("Age")) {
+                merged.remove("Age");
+            }
+            return new CachedResponse(statusCode, statusText, merged, body, timings, List.of(), System.nanoTime());
+        }
+
+        boolean isFresh(Duration ttl) {
+            if (revalidateAlways) {
+                return false;
+            }
+            Duration resident = residentTime();
+            Duration lifetime = maxAge == null ? ttl : min(ttl, maxAge.minusSeconds(initialAgeSeconds));
+            return resident.compareTo(lifetime) < 0;
+        }
+
+        Map<String, String> conditionalHeaders() {
+            Map<String, String> conditional = new LinkedHashMap<>();
+            String etag = firstValue(headers, "ETag");
+            if (etag != null) {
+                conditional.put("If-None-Match", etag);
+            }
+            String lastModified = firstValue(headers, "Last-Modified");
+            if (lastModified != null) {
+                conditional.put("If-Modified-Since", lastModified);
+            }
+            return conditional;
+        }
+
+        // The response as handed to a caller - Age advanced by the time spent in the cache, timings and attempts those of this call.
+        IServiceResponse asServed(RequestTimings servedTimings, List<CallAttempt> servedAttempts) {
+            Map<String, Object> servedHeaders = headers;
+            if (headers.containsKey("Age")) {
+                servedHeaders = copyHeaders(headers);
+                servedHeaders.put("Age", String.valueOf(initialAgeSeconds + residentTime().toSeconds()));
+            }
+            return new CachedResponse(statusCode, statusText, servedHeaders, body, servedTimings, servedAttempts, storedNanos);
+        }
+
+        long sizeBytes() {
+            return body.length() * 2L;
+        }
+
+        private Duration residentTime() {
+            return Duration.ofNanos(System.nanoTime() - storedNanos);
+        }
+
+        @Override
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        @Override
+        public String getStatusText() {
+            return statusText;
+        }
+
+        @Override
+        public Map<String, Object> getHeaders() {
+            return headers;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public List<String> getHeaderValues(String name) {
+            Object value = headers.get(name);
+            if (value == null) {
+                return List.of();
+            }
+            return value instanceof List<?> ? (List<String>) value : List.of((String) value);
+        }
+
+        @Override
+        public String getBody() {
+            return body;
+        }
+
+        @Override
+        public RequestTimings getTimings() {
+            return timings;
+        }
+
+        // Empty when served from the cache - no attempt of this call went to the network; the 304's attempts when revalidated.
+        @Override
+        public List<CallAttempt> getAttempts() {
+            return attempts;
+        }
+
+        private static Map<String, Object> copyHeaders(Map<String, Object> source) {
+            Map<String, Object> copy = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            source.forEach((name, value) -> copy.put(name, value instanceof List<?> list ? List.copyOf(list) : value));
+            return copy;
+        }
+
+        private static String firstValue(Map<String, Object> headers, String name) {
+            Object value = headers.get(name);
+            return value instanceof List<?> list ? (list.isEmpty() ? null : (String) list.get(0)) : (String) value;
+        }
+
+        private static long parseAge(String age) {
+            try {
+                return age == null ? 0 : Math.max(Long.parseLong(age.trim()), 0);
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+
+        private static Duration min(Duration first, Duration second) {
+            return first.compareTo(second) <= 0 ? first : second;
+        }
+    }
+}
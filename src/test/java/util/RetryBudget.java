@@ -0,0 +1,61 @@
+package util;
+
+/**
+ * Caps retries and hedges to a share of the calls made, so that a failing upstream is not hit with a multiple of its
+ * normal load (a retry storm) just when it can least take it.
+ * Every call deposits 'percent' / 100 of a token, every retry or hedge spends a whole one. The balance starts at, and is
+ * capped at, 'minRetries' tokens - a burst allowance that also keeps low-traffic runs able to retry at all.
+ * Design Note: a token bucket rather than a per-call limit - with maxAttempts alone, an outage multiplies the load by maxAttempts.
+ * Safe for use by multiple threads.
+ */
+public class RetryBudget {
+
+    // Tokens are counted in thousandths, so that a fraction of a token can be deposited per call.
+    private static final long TOKEN = 1000;
+
+    private final long depositPerCall;
+    private final long maxBalance;
+    private long balance;
+    private long spent;
+    private long refused;
+
+    public RetryBudget(double percent, int minRetries) {
+        if (percent < 0 || minRetries < 0) {
+            throw new IllegalArgumentException("Retry budget needs a non-negative percent and minimum, got: " + percent + "% / " + minRetries);
+        }
+        this.depositPerCall = Math.round(percent * TOKEN / 100);
+        this.maxBalance = Math.max(minRetries * TOKEN, depositPerCall);
+        this.balance = minRetries * TOKEN;
+    }
+
+    synchronized void callStarted() {
+        balance = Math.min(balance + depositPerCall, maxBalance);
+    }
+
+    /**
+     * Takes one retry (or hedge) from the budget - false, and nothing taken, when it is spent.
+     */
+    synchronized boolean tryAcquire() {
+        if (balance < TOKEN) {
+            refused++;
+            return false;
+        }
+        balance -= TOKEN;
+        spent++;
+        return true;
+    }
+
+    public synchronized long getSpent() {
+        return spent;
+    }
+
+    // Retries and hedges not made because the budget was spent.
+    public synchronized long getRefused() {
+        return refused;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("Retry budget - available: %.1f, spent: %d, refused: %d", balance / (double) TOKEN, spent, refused);
+    }
+}
@@ -0,0 +1,22 @@
+package util;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One data-driven test case read by {@link ScenarioSource}.
+ *
+ * @param index           position in the source file (0 based, data rows only) - used for sharding
+ * @param expectedHeaders header name to value, values may use {@link HeaderExpectations#DYNAMIC_HEADER_INDICATOR}
+ * @param expectedBody    expected JSON body fixture, or null when only status and headers are checked
+ * @param arrayKeys       element keys such as 'data[*].id' - when present the body is compared with a {@link KeyedJsonComparator}
+ */
+public record Scenario(long index, String name, String method, String uri, int expectedStatus,
+                       Map<String, Object> expectedHeaders, Path expectedBody, List<String> arrayKeys) {
+
+    @Override
+    public String toString() {
+        return "#" + index + " " + name + " (" + method + " " + uri + ")";
+    }
+}
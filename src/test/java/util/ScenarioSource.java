@@ -0,0 +1,196 @@
+package util;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Lazily reads data-driven test cases from a JSON Lines (.jsonl) or CSV (.csv) file, one {@link Scenario} per line,
+ * so a regression pack of any size is never held in memory - only the line being turned into a test.
+ * Rows outside the requested shard are skipped before they are parsed; the name filter applies to the remaining rows.
+ * <p>
+ * JSON Lines fields: name, method (default GET), uri, status (default 200), headers (object), body (fixture path,
+ * relative to the scenario file), arrayKeys (array such as ["data[*].id"]).
+ * CSV: a header row naming the same columns, then one row per scenario - headers is a JSON object in a quoted cell,
+ * arrayKeys are space separated. Quoted cells may contain commas and doubled quotes, but not line breaks.
+ * <p>
+ * Configure with -Dscenario.filter (regex, found anywhere in the name) and -Dscenario.shard=index/count (0 based),
+ * e.g. four CI agents run -Dscenario.shard=0/4 ... -Dscenario.shard=3/4 to split one pack between them.
+ */
+public class ScenarioSource {
+
+    public static final String FILTER_KEY = "scenario.filter";
+    public static final String SHARD_KEY = "scenario.shard";
+
+    private final Path file;
+    private final Pattern nameFilter;
+    private final int shardIndex;
+    private final int shardCount;
+
+    private ScenarioSource(Path file, Pattern nameFilter, int shardIndex, int shardCount) {
+        this.file = file;
+        this.nameFilter = nameFilter;
+        this.shardIndex = shardIndex;
+        this.shardCount = shardCount;
+    }
+
+    /**
+     * A source for the file, filtered and sharded as set by -Dscenario.filter and -Dscenario.shard.
+     */
+    public static ScenarioSource fromConfig(Path file) {
+        ScenarioSource source = new ScenarioSource(file, null, 0, 1);
+        String filter = FrameworkConfig.getString(FILTER_KEY, "");
+        if (!filter.isBlank()) {
+            source = source.filter(filter);
+        }
+        String shard = FrameworkConfig.getString(SHARD_KEY, "");
+        if (!shard.isBlank()) {
+            String[] parts = shard.split("/");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("-D" + SHARD_KEY + " must look like 'index/count', got: " + shard);
+            }
+            source = source.shard(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        }
+        return source;
+    }
+
+    public ScenarioSource filter(String nameRegex) {
+        return new ScenarioSource(file, Pattern.compile(nameRegex), shardIndex, shardCount);
+    }
+
+    public ScenarioSource shard(int index, int count) {
+        if (count < 1 || index < 0 || index >= count) {
+            throw new IllegalArgumentException("Shard index must be within 0.." + (count - 1) + " of " + count + " shards, got: " + index);
+        }
+        return new ScenarioSource(file, nameFilter, index, count);
+    }
+
+    /**
+     * Scenarios in file order. Note: the stream holds the file open - close it (JUnit closes streams returned by a @TestFactory).
+     */
+    public Stream<Scenario> stream() throws IOException {
+        boolean csv = file.getFileName().toString().toLowerCase().endsWith(".csv");
+        Stream<String> lines = Files.lines(file, StandardCharsets.UTF_8);
+        List<String> columns = new ArrayList<>();
+        AtomicLong lineNumber = new AtomicLong();
+        AtomicLong rowIndex = new AtomicLong();
+        return lines
+                .map(line -> new NumberedLine(lineNumber.incrementAndGet(), line))
+                .filter(line -> !line.text().isBlank())
+                .filter(line -> {
+                    if (csv && columns.isEmpty()) {
+                        columns.addAll(parseCsvRow(line.text()));
+                        return false;
+                    }
+                    return true;
+                })
+                .map(line -> new IndexedLine(rowIndex.getAndIncrement(), line))
+                .filter(row -> row.index() % shardCount == shardIndex)
+                .map(row -> parse(row, csv ? columns : null))
+                .filter(scenario -> nameFilter == null || nameFilter.matcher(scenario.name()).find());
+    }
+
+    private record NumberedLine(long number, String text) {
+    }
+
+    private record IndexedLine(long index, NumberedLine line) {
+    }
+
+    private Scenario parse(IndexedLine row, List<String> csvColumns) {
+        try {
+            JsonObject fields = csvColumns == null ? JsonParser.parseString(row.line().text()).getAsJsonObject()
+                    : csvFields(csvColumns, parseCsvRow(row.line().text()));
+            String uri = Objects.requireNonNull(text(fields, "uri"), "uri is required");
+            String name = text(fields, "name");
+            Map<String, Object> headers = new LinkedHashMap<>();
+            if (fields.has("headers") && fields.get("headers").isJsonObject()) {
+                fields.getAsJsonObject("headers").entrySet().forEach(header -> headers.put(header.getKey(), header.getValue().getAsString()));
+            }
+            String body = text(fields, "body");
+            List<String> arrayKeys = new ArrayList<>();
+            if (fields.has("arrayKeys") && fields.get("arrayKeys").isJsonArray()) {
+                fields.getAsJsonArray("arrayKeys").forEach(key -> arrayKeys.add(key.getAsString()));
+            }
+            String status = text(fields, "status");
+            String method = text(fields, "method");
+            return new Scenario(row.index(), name == null ? uri : name, method == null ? "GET" : method.toUpperCase(), uri,
+                    status == null ? 200 : Integer.parseInt(status), headers,
+                    body == null ? null : file.resolveSibling(body), List.copyOf(arrayKeys));
+        } catch (JsonParseException | IllegalStateException | UnsupportedOperationException | NullPointerException
+                 | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid scenario at " + file + ":" + row.line().number() + " - " + e.getMessage(), e);
+        }
+    }
+
+    // Note: getAsString throws for an object or array value (e.g. "status": {}) - reported by parse with the line number.
+    private static String text(JsonObject fields, String name) {
+        JsonElement value = fields.get(name);
+        return value == null || value.isJsonNull() || value.getAsString().isBlank() ? null : value.getAsString();
+    }
+
+    // CSV cells mapped onto the same field names as a JSON Lines scenario.
+    private static JsonObject csvFields(List<String> columns, List<String> cells) {
+        JsonObject fields = new JsonObject();
+        for (int i = 0; i < columns.size() && i < cells.size(); i++) {
+            String column = columns.get(i).trim();
+            String cell = cells.get(i).trim();
+            switch (column) {
+                case "headers" -> fields.add(column, cell.isEmpty() ? new JsonObject() : JsonParser.parseString(cell));
+                case "arrayKeys" -> {
+                    JsonArray keys = new JsonArray();
+                    for (String key : cell.split("\\s+")) {
+                        if (!key.isEmpty()) {
+                            keys.add(key);
+                        }
+                    }
+                    fields.add(column, keys);
+                }
+                default -> fields.addProperty(column, cell);
+            }
+        }
+        return fields;
+    }
+
+    private static List<String> parseCsvRow(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cell.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    cell.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        cells.add(cell.toString());
+        return cells;
+    }
+}
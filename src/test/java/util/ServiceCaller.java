@@ -1,38 +1,297 @@
 package util;
 
+import org.apache.http.Header;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpRequestBase;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
+import org.apache.http.client.protocol.HttpClientContext;
 
 import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static util.LogWrapper.logError;
 
 /**
  * Requests return a special class that holds the  response headers, status line, and body as we are using.
  * This is because of the design decision to use 'try with resource' so that HTTP connections are closed as soon as the request is completed (or actions fail).
+ * Design Note: the client itself is shared and pooled (see {@link HttpClientEngine}) - closing the response hands the
+ * keep-alive connection back to the pool rather than tearing it down.
+ * With -Dhttp.backend=jdk the blocking calls run on the java.net.http client instead (HTTP/2 multiplexed, see {@link JdkHttpEngine}),
+ * and the *Async methods always do. Streamed bodies (IResponseBodyConsumer) always use the Apache client.
+ * Every call runs under a {@link CallPolicy} - timeouts and a deadline always, retries and hedged GETs when configured
+ * (see {@link ResilientCall}) - the configured one unless a policy is passed.
  */
 public class ServiceCaller {
 
     public static IServiceResponse getRequest(String uri) throws IOException {
+        return getRequest(uri, CallPolicy.current());
+    }
+
+    public static IServiceResponse getRequest(String uri, CallPolicy policy) throws IOException {
+        // Note: -Dhttp.cache.enabled=true serves repeated GETs from a revalidating cache (not while recording - every call must be saved).
+        if (ResponseCache.isEnabled() && ApiMode.current() != ApiMode.RECORD) {
+            return cachedGet(uri, policy, ResponseCache.getSharedCache());
+        }
+        // Add specific headers here if required. Example: Map.of("keyname", value)
+        return send(HttpGet.METHOD_NAME, uri, Map.of(), policy);
+    }
+
+    /**
+     * GET through the given cache, as -Dhttp.cache.enabled=true does with the shared one - for a suite needing a cache of its own.
+     */
+    public static IServiceResponse getRequest(String uri, ResponseCache cache) throws IOException {
+        return cachedGet(uri, CallPolicy.current(), cache);
+    }
+
+    // A fresh or revalidated cached response, or a network call that may be stored - see ResponseCache.
+    private static IServiceResponse cachedGet(String uri, CallPolicy policy, ResponseCache cache) throws IOException {
+        return cache.get(uri, conditionalHeaders -> send(HttpGet.METHOD_NAME, uri, conditionalHeaders, policy));
+    }
+
+    /**
+     * Non-blocking GET on the java.net.http client (see {@link JdkHttpEngine}), whatever -Dhttp.backend is set to -
+     * compose on the returned future rather than joining it, so no thread waits while the request is in flight.
+     * Failures complete the future exceptionally with the IOException. Note: the response cache is not consulted.
+     */
+    public static CompletableFuture<IServiceResponse> getRequestAsync(String uri) {
+        return requestAsync(HttpGet.METHOD_NAME, uri);
+    }
+
+    /**
+     * Non-blocking form of {@link #request(String, String)} - see {@link #getRequestAsync(String)}.
+     */
+    public static CompletableFuture<IServiceResponse> requestAsync(String method, String uri) {
+        return requestAsync(method, uri, CallPolicy.current());
+    }
+
+    public static CompletableFuture<IServiceResponse> requestAsync(String method, String uri, CallPolicy policy) {
+        String upperMethod = method.toUpperCase();
+        URI target = URI.create(uri);
+        return ResilientCall.execute(upperMethod, target, policy, jdkAttempt(upperMethod, target, Map.of()));
+    }
+
+    /**
+     * Streams the response body to the consumer (e.g. a {@link JsonStreamValidator}) without holding it in memory.
+     * Note: a partly consumed body cannot be replayed, so streamed calls get the policy's timeouts but are never retried or hedged.
+     */
+    public static IServiceResponse getRequest(String uri, IResponseBodyConsumer bodyConsumer) throws IOException {
         HttpGet request = new HttpGet(uri);
+        CallPolicy policy = CallPolicy.current();
+        request.setConfig(policy.requestConfig(policy.getDeadline()));
+        return executeRequest(request, bodyConsumer);
+    }
+
+    /**
+     * Any request without a body (GET, HEAD, DELETE, OPTIONS ...) - used where the method is data, e.g. by scenario files.
+     */
+    public static IServiceResponse request(String method, String uri) throws IOException {
+        return request(method, uri, CallPolicy.current());
+    }
 
-        // Add specific headers here if required. Example: request.setHeader("keyname", value);
-        return executeRequest(request);
+    public static IServiceResponse request(String method, String uri, CallPolicy policy) throws IOException {
+        if (method.equalsIgnoreCase(HttpGet.METHOD_NAME)) {
+            return getRequest(uri, policy);
+        }
+        return send(method.toUpperCase(), uri, Map.of(), policy);
+    }
+
+    // Dispatches to the backend selected with -Dhttp.backend (see HttpBackend), under the policy's deadline / retries / hedging.
+    private static IServiceResponse send(String method, String uri, Map<String, String> headers, CallPolicy policy) throws IOException {
+        URI target = URI.create(uri);
+        ResilientCall.Attempt attempt = HttpBackend.current() == HttpBackend.JDK ? jdkAttempt(method, target, headers)
+                : apacheAttempt(method, target, headers, policy);
+        return await(ResilientCall.execute(method, target, policy, attempt));
     }
 
-    private static ServiceResponse executeRequest(HttpRequestBase request) throws IOException {
-        CloseableHttpClient httpClient = HttpClients.createDefault();
+    // A fresh request per attempt - a request that has been aborted cannot be sent again.
+    private static ResilientCall.Attempt apacheAttempt(String method, URI uri, Map<String, String> headers, CallPolicy policy) {
+        return (result, timeout, executor) -> {
+            HttpRequestBase request = method.equals(HttpGet.METHOD_NAME) ? new HttpGet(uri) : new BodilessRequest(method, uri);
+            headers.forEach(request::setHeader);
+            request.setConfig(policy.requestConfig(timeout));
+            // Abandoned by the call (deadline, or the other request of a hedged pair answered) - stop waiting on the socket.
+            result.whenComplete((response, failure) -> {
+                if (failure != null) {
+                    request.abort();
+                }
+            });
+            executor.execute(() -> {
+                try {
+                    result.complete(executeRequest(request, null));
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        };
+    }
+
+    // Any method without a body - the Apache request classes (HttpGet, HttpHead ...) only cover a fixed set of methods.
+    private static final class BodilessRequest extends HttpRequestBase {
+        private final String method;
+
+        private BodilessRequest(String method, URI uri) {
+            this.method = method;
+            setURI(uri);
+        }
+
+        @Override
+        public String getMethod() {
+            return method;
+        }
+    }
+
+    private static ResilientCall.Attempt jdkAttempt(String method, URI uri, Map<String, String> headers) {
+        return (result, timeout, executor) -> {
+            CompletableFuture<HttpResponse<byte[]>> exchange = sendAsync(method, uri, headers, timeout, result);
+            result.whenComplete((response, failure) -> {
+                if (failure != null) {
+                    exchange.cancel(true);
+                }
+            });
+        };
+    }
+
+    private static ServiceResponse executeRequest(HttpRequestBase request, IResponseBodyConsumer bodyConsumer) throws IOException {
+        // Note: -Dapi.mode=replay serves recorded responses from a local stub server instead of calling the real service.
+        ApiMode apiMode = ApiMode.current();
+        URI originalUri = request.getURI();
+        if (StubServer.isReplayed(originalUri)) {
+            StubServer.redirectToReplay(request);
+        }
+        // The recorder travels in the request context so the client engine can time connect, TLS and first byte.
+        HttpClientContext context = HttpClientContext.create();
+        RequestTimings.Recorder timingRecorder = new RequestTimings.Recorder();
+        timingRecorder.attachTo(context);
+        FrameworkEvents.HttpRequest event = new FrameworkEvents.HttpRequest();
+        event.begin();
         try (
                 // Use a closable design to avoid leaving connections open, particularly if something unexpected happens.
-                CloseableHttpResponse response = httpClient.execute(request)) {
-            return new ServiceResponse(response);
+                CloseableHttpResponse response = HttpClientEngine.getClient().execute(request, context)) {
+            ServiceResponse serviceResponse;
+            if (bodyConsumer != null) {
+                // A streamed body is never held in memory, so there is nothing to record.
+                serviceResponse = new ServiceResponse(response, bodyConsumer, timingRecorder);
+            } else {
+                serviceResponse = new ServiceResponse(response, timingRecorder);
+                if (apiMode == ApiMode.RECORD) {
+                    RecordingStore.fromConfig().save(request.getMethod(), originalUri, serviceResponse);
+                }
+            }
+            commitEvent(event, request.getMethod(), originalUri, serviceResponse, null);
+            LatencyBaseline.record(request.getMethod(), originalUri, serviceResponse.getTimings());
+            ArtifactWriter.writeExchange(request.getMethod(), originalUri, requestHeaders(request), serviceResponse);
+            return serviceResponse;
 
         } catch (IOException e) {
-            logError("Failed to complete execution of " + request.getMethod() + " request to: " + request.getURI());
+            commitEvent(event, request.getMethod(), originalUri, null, e);
+            // An aborted request was abandoned on purpose (see ResilientCall) - the call reports it, if it matters.
+            if (!request.isAborted()) {
+                logError("Failed to complete execution of " + request.getMethod() + " request to: " + request.getURI());
+            }
             throw e;
         }
     }
+
+    /* The java.net.http path - same replay / record / artifact / JFR handling as executeRequest, completed on the client's
+       threads (under the calling test's context). Completes 'result' and returns the exchange itself, for cancelling.
+     */
+    private static CompletableFuture<HttpResponse<byte[]>> sendAsync(String method, URI originalUri, Map<String, String> headers,
+                                                                     Duration timeout, CompletableFuture<IServiceResponse> result) {
+        ApiMode apiMode = ApiMode.current();
+        HttpRequest.Builder builder = HttpRequest.newBuilder().method(method, HttpRequest.BodyPublishers.noBody())
+                .timeout(timeout);
+        try {
+            if (StubServer.isReplayed(originalUri)) {
+                builder.uri(StubServer.replayUri(originalUri)).header(StubServer.REPLAY_ORIGIN_HEADER, StubServer.replayOrigin(originalUri));
+            } else {
+                builder.uri(originalUri);
+            }
+        } catch (IOException e) {
+            result.completeExceptionally(e);
+            return CompletableFuture.failedFuture(e);
+        }
+        headers.forEach(builder::header);
+        HttpRequest request = builder.build();
+
+        RequestTimings.Recorder timingRecorder = new RequestTimings.Recorder();
+        FrameworkEvents.HttpRequest event = new FrameworkEvents.HttpRequest();
+        event.begin();
+        CompletableFuture<HttpResponse<byte[]>> exchange = JdkHttpEngine.getClient()
+                .sendAsync(request, responseInfo -> {
+                    // Called once the status line and headers have arrived.
+                    timingRecorder.firstByteReceived();
+                    return HttpResponse.BodySubscribers.ofByteArray();
+                });
+        exchange.whenCompleteAsync((response, failure) -> {
+            if (failure != null) {
+                Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+                commitEvent(event, method, originalUri, null, cause);
+                // Cancelled when abandoned on purpose (see ResilientCall) - the call reports it, if it matters.
+                if (!result.isDone()) {
+                    logError("Failed to complete execution of " + method + " request to: " + request.uri());
+                }
+                result.completeExceptionally(cause instanceof IOException ? cause : new IOException(cause));
+                return;
+            }
+            try {
+                JdkServiceResponse serviceResponse = new JdkServiceResponse(response, timingRecorder);
+                if (apiMode == ApiMode.RECORD) {
+                    RecordingStore.fromConfig().save(method, originalUri, serviceResponse);
+                }
+                commitEvent(event, method, originalUri, serviceResponse, null);
+                LatencyBaseline.record(method, originalUri, serviceResponse.getTimings());
+                Map<String, String> sentHeaders = new LinkedHashMap<>();
+                request.headers().map().forEach((name, values) -> sentHeaders.put(name, String.join(", ", values)));
+                ArtifactWriter.writeExchange(method, originalUri, sentHeaders, serviceResponse);
+                result.complete(serviceResponse);
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        }, LogWrapper.withTestContext(Runnable::run));
+        return exchange;
+    }
+
+    private static IServiceResponse await(CompletableFuture<IServiceResponse> call) throws IOException {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private static void commitEvent(FrameworkEvents.HttpRequest event, String method, URI uri, IServiceResponse response, Throwable failure) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.method = method;
+            event.uri = uri.toString();
+            if (response != null) {
+                event.statusCode = response.getStatusCode();
+                event.responseBytes = response.getTimings().responseBytes();
+            } else {
+                event.failure = failure.toString();
+            }
+            event.commit();
+        }
+    }
+
+    private static Map<String, String> requestHeaders(HttpRequestBase request) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (Header header : request.getAllHeaders()) {
+            headers.put(header.getName(), header.getValue());
+        }
+        return headers;
+    }
 }
@@ -1,13 +1,22 @@
 package util;
 
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
 import org.apache.http.StatusLine;
 import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.HttpEntityWrapper;
 import org.apache.http.util.EntityUtils;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.HashMap;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 import static util.LogWrapper.logError;
 
@@ -22,23 +31,78 @@ public class ServiceResponse implements IServiceResponse {
     private final StatusLine statusLine;
     private final Map<String, Object> headers;
     private final String rawResponse;
+    private final RequestTimings timings;
+    private volatile List<CallAttempt> attempts = List.of();
 
     public ServiceResponse(CloseableHttpResponse response) throws IOException {
-        this.statusLine = response.getStatusLine();
+        this(response, (RequestTimings.Recorder) null);
+    }
 
-        // Convert header object to a more common format for easier validation processing.
-        Map<String, Object> tempHeaders = new HashMap<>();
-        Arrays.stream(response.getAllHeaders()).toList()
-                .forEach(header -> tempHeaders.put(header.getName(), header.getValue()));
-        this.headers = tempHeaders;
+    /**
+     * @param timingRecorder the recorder attached to the request's context, or null when timings are not needed
+     */
+    public ServiceResponse(CloseableHttpResponse response, RequestTimings.Recorder timingRecorder) throws IOException {
+        this.statusLine = response.getStatusLine();
+        this.headers = convertHeaders(response);
 
         // Capture the body as is.
+        CountingEntity entity = CountingEntity.wrap(response.getEntity());
         try {
-            this.rawResponse = EntityUtils.toString(response.getEntity());
+            this.rawResponse = entity == null ? null : EntityUtils.toString(entity);
         } catch (IOException e) {
             logError("Error converting api service response body: \n" + e.getMessage());
             throw e;
         }
+        this.timings = finishTimings(timingRecorder, entity);
+    }
+
+    public ServiceResponse(CloseableHttpResponse response, IResponseBodyConsumer bodyConsumer) throws IOException {
+        this(response, bodyConsumer, null);
+    }
+
+    /**
+     * Streams the body to the consumer as it arrives instead of buffering it - getBody() then returns null.
+     * Design Note: for very large payloads holding the body as a String (plus a parsed copy) exhausts the heap.
+     */
+    public ServiceResponse(CloseableHttpResponse response, IResponseBodyConsumer bodyConsumer,
+                           RequestTimings.Recorder timingRecorder) throws IOException {
+        this.statusLine = response.getStatusLine();
+        this.headers = convertHeaders(response);
+        this.rawResponse = null;
+
+        CountingEntity entity = CountingEntity.wrap(response.getEntity());
+        if (entity != null) {
+            Charset charset = ContentType.getOrDefault(entity).getCharset();
+            try (InputStream body = entity.getContent()) {
+                bodyConsumer.consume(body, charset != null ? charset : StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                logError("Error streaming api service response body: \n" + e.getMessage());
+                throw e;
+            }
+        }
+        this.timings = finishTimings(timingRecorder, entity);
+    }
+
+    private static RequestTimings finishTimings(RequestTimings.Recorder timingRecorder, CountingEntity entity) {
+        long bytes = entity == null ? 0 : entity.getBytesRead();
+        return timingRecorder == null ? RequestTimings.NONE : timingRecorder.finish(bytes);
+    }
+
+    /* Convert header object to a more common format for easier validation processing.
+       Note: HTTP header names are case-insensitive, and a repeated header (e.g. Set-Cookie, Vary) keeps all its values
+       as a List<String> rather than the last one overwriting the others.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> convertHeaders(CloseableHttpResponse response) {
+        Map<String, Object> tempHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Header header : response.getAllHeaders()) {
+            tempHeaders.merge(header.getName(), header.getValue(), (existing, added) -> {
+                List<String> values = existing instanceof List<?> ? (List<String>) existing : new ArrayList<>(List.of((String) existing));
+                values.add((String) added);
+                return values;
+            });
+        }
+        return tempHeaders;
     }
 
     @Override
@@ -56,8 +120,76 @@ public class ServiceResponse implements IServiceResponse {
         return headers;
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<String> getHeaderValues(String name) {
+        Object value = headers.get(name);
+        if (value == null) {
+            return List.of();
+        }
+        return value instanceof List<?> ? (List<String>) value : List.of((String) value);
+    }
+
+    @Override
+    public RequestTimings getTimings() {
+        return timings;
+    }
+
+    @Override
+    public List<CallAttempt> getAttempts() {
+        return attempts;
+    }
+
+    // Set by ResilientCall once the call is settled.
+    void setAttempts(List<CallAttempt> attempts) {
+        this.attempts = attempts;
+    }
+
+    /**
+     * Note: null when the body was streamed to an {@link IResponseBodyConsumer} rather than captured.
+     */
     @Override
     public String getBody() {
         return rawResponse;
     }
+
+    // Counts the body bytes as they are read, whether buffered or streamed.
+    private static class CountingEntity extends HttpEntityWrapper {
+        private long bytesRead = 0;
+
+        private CountingEntity(HttpEntity entity) {
+            super(entity);
+        }
+
+        static CountingEntity wrap(HttpEntity entity) {
+            return entity == null ? null : new CountingEntity(entity);
+        }
+
+        long getBytesRead() {
+            return bytesRead;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            return new FilterInputStream(super.getContent()) {
+                @Override
+                public int read() throws IOException {
+                    int value = super.read();
+                    if (value >= 0) {
+                        bytesRead++;
+                    }
+                    return value;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int count = super.read(buffer, offset, length);
+                    if (count > 0) {
+                        bytesRead += count;
+                    }
+                    return count;
+                }
+            };
+        }
+    }
 }
@@ -0,0 +1,368 @@
+package util;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.client.methods.HttpRequestBase;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import static util.LogWrapper.logError;
+import static util.LogWrapper.logInfo;
+
+/**
+ * Minimal local HTTP server (JDK built-in) that serves canned or recorded responses, so that tests and load runs can execute offline.
+ * Responses come from explicitly stubbed paths first, then (when enabled) from a {@link RecordingStore}.
+ * Latency, jitter and error responses can be injected to exercise timeout and tail-latency handling on purpose.
+ * Requests with an If-None-Match matching the response's ETag get a 304 instead, as the real service does.
+ * Design Note: the JDK server normalises header names on the wire (e.g. 'Content-Type' is sent as 'Content-type'),
+ * and always sets its own 'Date' - header checks are case-insensitive, and dates are validated by pattern anyway.
+ */
+public class StubServer implements AutoCloseable {
+
+    // Sent by ServiceCaller in replay mode so that the server can find the recording for the original (real) target.
+    public static final String REPLAY_ORIGIN_HEADER = "X-Replay-Origin";
+
+    public static final String LATENCY_MS_KEY = "stub.latencyMs";
+    public static final String JITTER_MS_KEY = "stub.jitterMs";
+    public static final String ERROR_RATE_KEY = "stub.errorRate";
+    public static final String ERROR_STATUS_KEY = "stub.errorStatus";
+    public static final String SLOW_RATE_KEY = "stub.slowRate";
+    public static final String SLOW_MS_KEY = "stub.slowMs";
+
+    // Framing headers are derived from the body actually sent, and the server always writes its own Date.
+    private static final Set<String> NON_REPLAYED_HEADERS = Set.of("content-length", "transfer-encoding", "date");
+
+    private static StubServer replayServer;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, StubResponse> routes = new ConcurrentHashMap<>();
+    private volatile RecordingStore replayStore;
+    private volatile Faults faults = Faults.NONE;
+    // One-off answers for the next requests, in arrival order - ahead of the faults and stubs.
+    private final Queue<Scripted> scripted = new ConcurrentLinkedQueue<>();
+    // Requests received and 304s sent per path - lets a test see which calls reached the server.
+    private final Map<String, LongAdder> requestCounts = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> notModifiedCounts = new ConcurrentHashMap<>();
+
+    private StubServer(HttpServer server, ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts a server on a free loopback port.
+     */
+    public static StubServer start() throws IOException {
+        /* Without TCP_NODELAY the separate header / chunk writes meet the client's delayed ACK and every response
+           stalls ~40ms - read once by the JDK server, so it must be set before the first server is created.
+         */
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        HttpServer httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "stub-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        StubServer stubServer = new StubServer(httpServer, executor);
+        httpServer.createContext("/", stubServer::handle);
+        httpServer.setExecutor(executor);
+        httpServer.start();
+        logInfo("Stub server listening on " + stubServer.getBaseUri());
+        return stubServer;
+    }
+
+    /**
+     * The shared replay server used by {@link ServiceCaller} in {@link ApiMode#REPLAY} - started on first use,
+     * serving from {@link RecordingStore#fromConfig()} with faults from the stub.* system properties.
+     */
+    public static synchronized StubServer getReplayServer() throws IOException {
+        if (replayServer == null) {
+            replayServer = start().replayFrom(RecordingStore.fromConfig()).withFaults(Faults.fromConfig());
+            Runtime.getRuntime().addShutdownHook(new Thread(replayServer::close, "replay-server-shutdown"));
+        }
+        return replayServer;
+    }
+
+    /**
+     * Whether a request for the uri is served by the replay server - in replay mode, unless it already targets a local
+     * server (such as a StubServer started by a suite), which is called as is.
+     */
+    public static boolean isReplayed(URI uri) {
+        if (ApiMode.current() != ApiMode.REPLAY) {
+            return false;
+        }
+        // Decided from the name alone - no DNS lookup on every call.
+        String host = uri.getHost() == null ? "" : uri.getHost().toLowerCase();
+        return !(host.equals("localhost") || host.startsWith("127.") || host.equals("[::1]"));
+    }
+
+    /**
+     * Points a request at the shared replay server, keeping the original target in {@link #REPLAY_ORIGIN_HEADER}.
+     */
+    public static void redirectToReplay(HttpRequestBase request) throws IOException {
+        URI original = request.getURI();
+        request.setURI(replayUri(original));
+        request.setHeader(REPLAY_ORIGIN_HEADER, replayOrigin(original));
+    }
+
+    /**
+     * The shared replay server's address for the same path and query - for clients other than Apache HttpClient,
+     * which must also send {@link #replayOrigin(URI)} in the {@link #REPLAY_ORIGIN_HEADER} header.
+     */
+    public static URI replayUri(URI original) throws IOException {
+        InetSocketAddress address = getReplayServer().server.getAddress();
+        try {
+            return new URI("http", null, address.getHostString(), address.getPort(), original.getPath(), original.getQuery(), null);
+        } catch (URISyntaxException e) {
+            throw new IOException("Cannot redirect " + original + " to the replay server", e);
+        }
+    }
+
+    public static String replayOrigin(URI original) {
+        return original.getScheme() + "://" + original.getRawAuthority();
+    }
+
+    public String getBaseUri() {
+        InetSocketAddress address = server.getAddress();
+        return "http://" + address.getHostString() + ":" + address.getPort();
+    }
+
+    /**
+     * Registers the response to serve for a path (query strings are ignored when matching).
+     */
+    public StubServer stub(String path, StubResponse response) {
+        routes.put(path, response);
+        return this;
+    }
+
+    /**
+     * Serves recorded responses for any path without an explicit stub.
+     */
+    public StubServer replayFrom(RecordingStore recordingStore) {
+        this.replayStore = recordingStore;
+        return this;
+    }
+
+    public StubServer withFaults(Faults faults) {
+        this.faults = faults;
+        return this;
+    }
+
+    /**
+     * The next request (on any path) is held for the delay, then answered with the response - or as usual when it is null.
+     * Calls queue up, one per request - for exact sequences such as a slow error followed by a good answer.
+     */
+    public StubServer script(long delayMillis, StubResponse response) {
+        scripted.add(new Scripted(delayMillis, response));
+        return this;
+    }
+
+    private record Scripted(long delayMillis, StubResponse response) {
+    }
+
+    public long getRequestCount(String path) {
+        LongAdder count = requestCounts.get(path);
+        return count == null ? 0 : count.sum();
+    }
+
+    // Requests answered with a 304 because their If-None-Match matched the stubbed ETag.
+    public long getNotModifiedCount(String path) {
+        LongAdder count = notModifiedCounts.get(path);
+        return count == null ? 0 : count.sum();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            requestCounts.computeIfAbsent(path, key -> new LongAdder()).increment();
+            Scripted next = scripted.poll();
+            StubResponse response;
+            if (next != null) {
+                pause(next.delayMillis());
+                response = next.response();
+            } else {
+                response = faults.apply();
+            }
+            if (response == null) {
+                response = routes.get(path);
+            }
+            if (response == null && replayStore != null) {
+                response = replay(exchange);
+            }
+            if (response == null) {
+                response = StubResponse.of(404, Map.of("Content-Type", "text/plain"), "No stub for " + exchange.getRequestURI());
+            }
+            if (isNotModified(exchange, response)) {
+                notModifiedCounts.computeIfAbsent(path, key -> new LongAdder()).increment();
+                response = response.notModified();
+            }
+            response.getHeaders().forEach((name, values) -> {
+                if (!NON_REPLAYED_HEADERS.contains(name.toLowerCase())) {
+                    values.forEach(value -> exchange.getResponseHeaders().add(name, value));
+                }
+            });
+            byte[] body = response.getBody();
+            // Length 0 means chunked transfer encoding, matching what the real service sends.
+            exchange.sendResponseHeaders(response.getStatusCode(), body.length == 0 ? -1 : 0);
+            if (body.length > 0) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        }
+    }
+
+    // Conditional GET support, so that cache revalidation (see ResponseCache) can be exercised offline.
+    private static boolean isNotModified(HttpExchange exchange, StubResponse response) {
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        List<String> etag = response.getHeaderValues("ETag");
+        return response.getStatusCode() == 200 && ifNoneMatch != null && !etag.isEmpty() && ifNoneMatch.equals(etag.get(0));
+    }
+
+    private StubResponse replay(HttpExchange exchange) {
+        String origin = exchange.getRequestHeaders().getFirst(REPLAY_ORIGIN_HEADER);
+        if (origin == null) {
+            return null;
+        }
+        URI originalUri = URI.create(origin + exchange.getRequestURI().getRawPath()
+                + (exchange.getRequestURI().getRawQuery() != null ? "?" + exchange.getRequestURI().getRawQuery() : ""));
+        try {
+            RecordingStore.Recording recording = replayStore.load(exchange.getRequestMethod(), originalUri);
+            if (recording == null) {
+                logError("No recording found for " + exchange.getRequestMethod() + " " + originalUri
+                        + " - run once with -D" + ApiMode.API_MODE_KEY + "=record to capture it.");
+                return null;
+            }
+            return StubResponse.withHeaderValues(recording.statusCode(), recording.headers(),
+                    recording.body() == null ? new byte[0] : recording.body().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            logError("Error reading recording for " + originalUri + ": " + e.getMessage());
+            return StubResponse.of(500, Map.of("Content-Type", "text/plain"), "Unreadable recording for " + originalUri);
+        }
+    }
+
+    // Holds the calling (server) thread.
+    private static void pause(long delayMillis) {
+        if (delayMillis > 0) {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Injected latency (fixed + uniform random jitter), a rate of error responses, and a rate of much slower responses
+     * (a latency tail, e.g. a stalled upstream - what hedged requests are for), applied to every request.
+     */
+    public record Faults(long latencyMillis, long jitterMillis, double errorRate, int errorStatus, double slowRate, long slowMillis) {
+
+        public static final Faults NONE = new Faults(0, 0, 0, 503, 0, 0);
+
+        public Faults(long latencyMillis, long jitterMillis, double errorRate, int errorStatus) {
+            this(latencyMillis, jitterMillis, errorRate, errorStatus, 0, 0);
+        }
+
+        public static Faults fromConfig() {
+            return new Faults(FrameworkConfig.getLong(LATENCY_MS_KEY, 0), FrameworkConfig.getLong(JITTER_MS_KEY, 0),
+                    FrameworkConfig.getDouble(ERROR_RATE_KEY, 0), FrameworkConfig.getInt(ERROR_STATUS_KEY, 503),
+                    FrameworkConfig.getDouble(SLOW_RATE_KEY, 0), FrameworkConfig.getLong(SLOW_MS_KEY, 0));
+        }
+
+        // Delays the calling (server) thread, then returns an error response to send instead, or null to carry on.
+        private StubResponse apply() {
+            long delay = latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0)
+                    + (slowRate > 0 && ThreadLocalRandom.current().nextDouble() < slowRate ? slowMillis : 0);
+            pause(delay);
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                return StubResponse.of(errorStatus, Map.of("Content-Type", "text/plain"), "Injected error");
+            }
+            return null;
+        }
+    }
+
+    /**
+     * A canned response - status, headers (in insertion order, possibly repeated) and body bytes.
+     */
+    public static class StubResponse {
+        private final int statusCode;
+        private final Map<String, List<String>> headers;
+        private final byte[] body;
+
+        public StubResponse(int statusCode, Map<String, String> headers, byte[] body) {
+            this.statusCode = statusCode;
+            this.headers = new LinkedHashMap<>();
+            headers.forEach((name, value) -> this.headers.put(name, List.of(value)));
+            this.body = body;
+        }
+
+        private StubResponse(int statusCode, LinkedHashMap<String, List<String>> headers, byte[] body) {
+            this.statusCode = statusCode;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        public static StubResponse of(int statusCode, Map<String, String> headers, String body) {
+            return new StubResponse(statusCode, headers, body.getBytes(StandardCharsets.UTF_8));
+        }
+
+        // For repeated headers, e.g. several Set-Cookie values.
+        public static StubResponse withHeaderValues(int statusCode, Map<String, List<String>> headers, byte[] body) {
+            return new StubResponse(statusCode, new LinkedHashMap<>(headers), body);
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public Map<String, List<String>> getHeaders() {
+            return headers;
+        }
+
+        // Case-insensitive lookup - recorded header names keep whatever case the real service sent.
+        public List<String> getHeaderValues(String name) {
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                if (header.getKey().equalsIgnoreCase(name)) {
+                    return header.getValue();
+                }
+            }
+            return List.of();
+        }
+
+        // A 304 for this response - same headers, no body.
+        StubResponse notModified() {
+            return new StubResponse(304, new LinkedHashMap<>(headers), new byte[0]);
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+    }
+}
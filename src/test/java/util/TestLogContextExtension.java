@@ -0,0 +1,50 @@
+package util;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.DynamicTestInvocationContext;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+
+/**
+ * Tags all log output of a test with its class and display name (see {@link LogWrapper#setTestContext(String)}),
+ * so that interleaved output from suites running in parallel stays attributable.
+ * Dynamic tests (e.g. each case of a @TestFactory pack) get a context of their own, named after the factory and the case,
+ * so their log lines, artifacts and latency baselines are kept per case rather than pooled under the factory.
+ * Register on a suite with @ExtendWith(TestLogContextExtension.class).
+ */
+public class TestLogContextExtension implements BeforeEachCallback, AfterEachCallback, InvocationInterceptor {
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        LogWrapper.setTestContext(testName(context));
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        ArtifactWriter.testFinished(testName(context));
+        LogWrapper.clearTestContext();
+    }
+
+    // Note: dynamic tests may run on another thread than their factory - the context is set wherever the case runs.
+    @Override
+    public void interceptDynamicTest(Invocation<Void> invocation, DynamicTestInvocationContext invocationContext,
+                                     ExtensionContext extensionContext) throws Throwable {
+        // The case's own context has no test class - the factory method's (its parent) does.
+        String testName = extensionContext.getParent().map(TestLogContextExtension::testName)
+                .map(factoryName -> factoryName + " > " + extensionContext.getDisplayName())
+                .orElse(extensionContext.getDisplayName());
+        String previous = LogWrapper.getTestContext();
+        LogWrapper.setTestContext(testName);
+        try {
+            invocation.proceed();
+        } finally {
+            ArtifactWriter.testFinished(testName);
+            LogWrapper.setTestContext(previous);
+        }
+    }
+
+    private static String testName(ExtensionContext context) {
+        return context.getRequiredTestClass().getSimpleName() + " > " + context.getDisplayName();
+    }
+}